@@ -0,0 +1,125 @@
+package io.quarkiverse.helm.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.dekorate.ConfigReference;
+import io.dekorate.Session;
+import io.dekorate.helm.config.HelmChartConfig;
+import io.dekorate.helm.config.HelmChartConfigBuilder;
+import io.quarkiverse.helm.deployment.QuarkusHelmWriterSessionListener;
+import io.quarkiverse.helm.deployment.utils.HelmBuildReport;
+import io.quarkiverse.helm.deployment.utils.ManifestSource;
+
+/**
+ * Measures the whole generation of a Helm chart by {@link QuarkusHelmWriterSessionListener#writeHelmFiles} from
+ * synthetic manifests, including the templates, the values files and the tarball.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChartWriterBenchmark {
+
+    private static final String DEPLOYMENT_TARGET = "kubernetes";
+    private static final String MANIFEST = DEPLOYMENT_TARGET + ".yml";
+    private static final String NAME = "app";
+
+    @Param({ "10", "100", "1000" })
+    public int resources;
+
+    @Param({ "0", "100", "1000" })
+    public int valueReferences;
+
+    private final QuarkusHelmWriterSessionListener writer = new QuarkusHelmWriterSessionListener();
+    private HelmChartConfig helmConfig;
+    private List<ConfigReference> configReferences;
+    private byte[] manifest;
+    private Path inputDir;
+    private Path outputDir;
+
+    @Setup
+    public void setup() throws IOException {
+        helmConfig = new HelmChartConfigBuilder()
+                .withEnabled(true)
+                .withApiVersion("v2")
+                .withName(NAME)
+                .withVersion("1.0.0")
+                .withExtension("tar.gz")
+                .withValuesRootAlias(NAME)
+                .withCreateTarFile(true)
+                .build();
+
+        List<Map<Object, Object>> deployments = new ArrayList<>();
+        for (int index = 0; index < resources; index++) {
+            deployments.add(SyntheticResources.deployment(NAME + "-" + index, 1));
+        }
+
+        manifest = ManifestSource.fromResources(MANIFEST, deployments).getContent();
+
+        configReferences = new ArrayList<>();
+        for (int index = 0; index < valueReferences; index++) {
+            String filter = "(kind == Deployment && metadata.name == " + NAME + "-" + (index % resources) + ")";
+            if (index % 2 == 0) {
+                configReferences.add(new ConfigReference("replicas" + index, filter + ".spec.replicas", index));
+            } else {
+                configReferences.add(new ConfigReference("image" + index, filter + ".spec.template.spec.containers.image",
+                        "quay.io/example/image:" + index));
+            }
+        }
+
+        inputDir = Files.createTempDirectory("helm-benchmark-input");
+    }
+
+    @Setup(Level.Invocation)
+    public void createOutputDir() throws IOException {
+        outputDir = Files.createTempDirectory("helm-benchmark-output").resolve(DEPLOYMENT_TARGET);
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteOutputDir() throws IOException {
+        delete(outputDir.getParent());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        delete(inputDir);
+    }
+
+    @Benchmark
+    public Map<String, String> writeHelmFiles() {
+        return writer.writeHelmFiles(Session.getSession(), null, helmConfig, configReferences, inputDir, outputDir,
+                List.of(ManifestSource.fromBytes(MANIFEST, manifest)), new HelmBuildReport(DEPLOYMENT_TARGET));
+    }
+
+    private static void delete(Path folder) throws IOException {
+        try (Stream<Path> paths = Files.walk(folder)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
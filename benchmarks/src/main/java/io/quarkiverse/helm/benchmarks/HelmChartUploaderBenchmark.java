@@ -0,0 +1,109 @@
+package io.quarkiverse.helm.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.quarkiverse.helm.deployment.HelmChartUploader;
+import io.quarkiverse.helm.deployment.HelmRepository;
+import io.quarkiverse.helm.deployment.HelmRepositoryClient;
+import io.quarkiverse.helm.deployment.HelmRepositoryType;
+
+/**
+ * Measures the push of a chart by HTTP client and repository type to a local server that stands in for the repository and
+ * discards the uploaded charts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HelmChartUploaderBenchmark {
+
+    @Param({ "URL_CONNECTION", "HTTP_CLIENT" })
+    public HelmRepositoryClient client;
+
+    @Param({ "CHARTMUSEUM", "ARTIFACTORY" })
+    public HelmRepositoryType type;
+
+    @Param({ "16", "4096" })
+    public int sizeInKb;
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private File tarball;
+    private HelmRepository repository;
+
+    @Setup
+    public void setup() throws IOException {
+        executor = Executors.newFixedThreadPool(4);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> {
+            byte[] buffer = new byte[64 * 1024];
+            try (InputStream is = exchange.getRequestBody()) {
+                while (is.read(buffer) != -1) {
+                    // discard the chart
+                }
+            }
+
+            exchange.sendResponseHeaders(201, -1);
+            exchange.close();
+        });
+        server.start();
+
+        tarball = Files.createTempFile("helm-benchmark", ".tar.gz").toFile();
+        try (RandomAccessFile file = new RandomAccessFile(tarball, "rw")) {
+            file.setLength(sizeInKb * 1024L);
+        }
+
+        repository = new HelmRepository();
+        repository.push = true;
+        repository.type = Optional.of(type);
+        repository.url = Optional.of("http://localhost:" + server.getAddress().getPort()
+                + (type == HelmRepositoryType.CHARTMUSEUM ? "/api/charts" : "/artifactory/helm"));
+        repository.username = Optional.of("user");
+        repository.password = Optional.of("password");
+        repository.token = Optional.empty();
+        repository.deploymentTarget = Optional.empty();
+        repository.connectTimeout = Duration.ofSeconds(30);
+        repository.readTimeout = Duration.ofMinutes(5);
+        repository.client = client;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.stop(0);
+        executor.shutdownNow();
+        Files.deleteIfExists(tarball.toPath());
+    }
+
+    @Benchmark
+    public boolean push() {
+        return HelmChartUploader.pushToHelmRepository(tarball, "benchmark", "1.0.0", repository);
+    }
+}
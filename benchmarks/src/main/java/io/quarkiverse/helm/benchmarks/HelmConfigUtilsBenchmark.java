@@ -0,0 +1,89 @@
+package io.quarkiverse.helm.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.dekorate.helm.config.HelmChartConfig;
+import io.dekorate.helm.config.HelmChartConfigBuilder;
+import io.dekorate.helm.config.HelmDependencyBuilder;
+import io.quarkiverse.helm.deployment.utils.HelmConfigUtils;
+import io.quarkiverse.helm.deployment.utils.PropertyDeductionContext;
+
+/**
+ * Measures how the value properties are resolved against the values root alias and the chart dependencies: rootless
+ * properties, properties of a dependency and properties of the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HelmConfigUtilsBenchmark {
+
+    private static final int MANIFESTS = 2;
+    private static final String[] DEPENDENCIES = { "postgresql", "redis", "kafka" };
+
+    @Param({ "10", "100", "1000" })
+    public int valueReferences;
+
+    private HelmChartConfig helmConfig;
+    private List<String> properties;
+
+    @Setup
+    public void setup() {
+        HelmChartConfigBuilder builder = new HelmChartConfigBuilder().withValuesRootAlias("app");
+        for (String dependency : DEPENDENCIES) {
+            builder.addToDependencies(new HelmDependencyBuilder().withName(dependency).withAlias(dependency).build());
+        }
+
+        helmConfig = builder.build();
+        properties = new ArrayList<>();
+        for (int index = 0; index < valueReferences; index++) {
+            switch (index % 3) {
+                case 0:
+                    properties.add("@.global.property" + index);
+                    break;
+                case 1:
+                    properties.add(DEPENDENCIES[index % DEPENDENCIES.length] + ".property" + index);
+                    break;
+                default:
+                    properties.add("property" + index);
+            }
+        }
+    }
+
+    @Benchmark
+    public void deductProperty(Blackhole blackhole) {
+        for (String property : properties) {
+            blackhole.consume(HelmConfigUtils.deductProperty(helmConfig, property));
+        }
+    }
+
+    /**
+     * Like the chart writer, every property is deducted once for the values and once for every manifest.
+     */
+    @Benchmark
+    public void deductPropertyWithContext(Blackhole blackhole) {
+        PropertyDeductionContext context = new PropertyDeductionContext(helmConfig);
+        for (int manifest = 0; manifest <= MANIFESTS; manifest++) {
+            for (String property : properties) {
+                blackhole.consume(context.deductProperty(property));
+            }
+        }
+    }
+}
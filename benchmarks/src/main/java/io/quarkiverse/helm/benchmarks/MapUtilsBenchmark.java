@@ -0,0 +1,51 @@
+package io.quarkiverse.helm.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.quarkiverse.helm.deployment.utils.MapUtils;
+
+/**
+ * Measures the conversion of the flat values (for example: `app.image.tag`) into the nested maps of the values files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapUtilsBenchmark {
+
+    private static final int PROPERTIES_BY_GROUP = 10;
+
+    @Param({ "10", "100", "1000" })
+    public int values;
+
+    private Map<String, Object> flatValues;
+
+    @Setup
+    public void setup() {
+        flatValues = new HashMap<>();
+        for (int index = 0; index < values; index++) {
+            flatValues.put("app.group" + (index / PROPERTIES_BY_GROUP) + ".property" + index, "value" + index);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> toMultiValueSortedMap() {
+        return MapUtils.toMultiValueSortedMap(flatValues);
+    }
+}
@@ -0,0 +1,125 @@
+package io.quarkiverse.helm.benchmarks;
+
+import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.END_EXPRESSION_TOKEN;
+import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.START_EXPRESSION_TOKEN;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates Kubernetes resources like the ones that are processed by the Helm chart writer.
+ */
+public final class SyntheticResources {
+
+    private static final String LONG_TEXT = "This is a long description that Jackson will split in several lines when "
+            + "serializing it as YAML, so the escape characters it adds need to be removed afterwards by the writer.";
+
+    public enum Kind {
+        CONFIG_MAP,
+        CUSTOM_RESOURCE_DEFINITION
+    }
+
+    private SyntheticResources() {
+
+    }
+
+    public static Map<Object, Object> large(Kind kind, int entries) {
+        return kind == Kind.CONFIG_MAP ? configMap("dashboards", entries) : customResourceDefinition(entries);
+    }
+
+    public static Map<Object, Object> configMap(String name, int entries) {
+        Map<Object, Object> data = new LinkedHashMap<>();
+        for (int index = 0; index < entries; index++) {
+            if (index % 2 == 0) {
+                data.put("key-" + index, expression(".Values.app.key" + index));
+            } else {
+                data.put("key-" + index, LONG_TEXT + " " + index);
+            }
+        }
+
+        Map<Object, Object> resource = resource("v1", "ConfigMap", name);
+        resource.put("data", data);
+        return resource;
+    }
+
+    public static Map<Object, Object> customResourceDefinition(int properties) {
+        Map<Object, Object> schemaProperties = new LinkedHashMap<>();
+        for (int index = 0; index < properties; index++) {
+            Map<Object, Object> property = new LinkedHashMap<>();
+            property.put("type", "string");
+            property.put("description", LONG_TEXT);
+            property.put("default", expression(".Values.app.property" + index + " | quote"));
+            schemaProperties.put("property" + index, property);
+        }
+
+        Map<Object, Object> schema = new LinkedHashMap<>();
+        schema.put("type", "object");
+        schema.put("properties", schemaProperties);
+
+        Map<Object, Object> version = new LinkedHashMap<>();
+        version.put("name", "v1");
+        version.put("served", true);
+        version.put("storage", true);
+        version.put("schema", Collections.singletonMap("openAPIV3Schema", schema));
+
+        Map<Object, Object> spec = new LinkedHashMap<>();
+        spec.put("group", "example.com");
+        spec.put("scope", "Namespaced");
+        spec.put("versions", Collections.singletonList(version));
+
+        Map<Object, Object> resource = resource("apiextensions.k8s.io/v1", "CustomResourceDefinition", "examples.example.com");
+        resource.put("spec", spec);
+        return resource;
+    }
+
+    public static Map<Object, Object> deployment(String name, int containers) {
+        List<Object> containerList = new ArrayList<>();
+        for (int index = 0; index < containers; index++) {
+            Map<Object, Object> container = new LinkedHashMap<>();
+            container.put("name", name + "-" + index);
+            container.put("image", "quay.io/example/" + name + ":1.0.0");
+            container.put("env", new ArrayList<>(List.of(env("VAR_" + index, "value-" + index))));
+            containerList.add(container);
+        }
+
+        Map<Object, Object> podSpec = new LinkedHashMap<>();
+        podSpec.put("containers", containerList);
+        Map<Object, Object> template = new LinkedHashMap<>();
+        template.put("spec", podSpec);
+        Map<Object, Object> spec = new LinkedHashMap<>();
+        spec.put("replicas", 1);
+        spec.put("template", template);
+
+        Map<Object, Object> resource = resource("apps/v1", "Deployment", name);
+        resource.put("spec", spec);
+        return resource;
+    }
+
+    private static Map<Object, Object> env(String name, String value) {
+        Map<Object, Object> env = new LinkedHashMap<>();
+        env.put("name", name);
+        env.put("value", value);
+        return env;
+    }
+
+    private static Map<Object, Object> resource(String apiVersion, String kind, String name) {
+        Map<Object, Object> metadata = new LinkedHashMap<>();
+        metadata.put("name", name);
+
+        Map<Object, Object> resource = new LinkedHashMap<>();
+        resource.put("apiVersion", apiVersion);
+        resource.put("kind", kind);
+        resource.put("metadata", metadata);
+        return resource;
+    }
+
+    /**
+     * @return the expression with the same tokens that are added by the Helm chart writer.
+     */
+    private static String expression(String value) {
+        return START_EXPRESSION_TOKEN + "{{ " + value + " }}" + END_EXPRESSION_TOKEN;
+    }
+}
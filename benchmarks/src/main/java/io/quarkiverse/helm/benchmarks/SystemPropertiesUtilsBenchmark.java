@@ -0,0 +1,58 @@
+package io.quarkiverse.helm.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.quarkiverse.helm.deployment.utils.SystemPropertiesUtils;
+
+/**
+ * Measures the lookup of the system properties (for example: `${PROPERTY:default}`) in the raw value of a property.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SystemPropertiesUtilsBenchmark {
+
+    @Param({ "1", "10", "100" })
+    public int properties;
+
+    @Param({ "false", "true" })
+    public boolean nested;
+
+    private String rawValue;
+
+    @Setup
+    public void setup() {
+        StringBuilder builder = new StringBuilder("jdbc:postgresql://");
+        for (int index = 0; index < properties; index++) {
+            builder.append("${PROPERTY_").append(index);
+            if (nested) {
+                builder.append(":${DEFAULT_").append(index).append(":value}");
+            }
+
+            builder.append("}/");
+        }
+
+        rawValue = builder.toString();
+    }
+
+    @Benchmark
+    public List<String> getSystemProperties() {
+        return SystemPropertiesUtils.getSystemProperties(rawValue);
+    }
+}
@@ -0,0 +1,75 @@
+package io.quarkiverse.helm.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.dekorate.utils.Serialization;
+import io.quarkiverse.helm.deployment.utils.TarballWriter;
+
+/**
+ * Measures the writing of the tarball of a chart with large CRDs by compression level and number of compression threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TarballWriterBenchmark {
+
+    private static final int CRD_PROPERTIES = 1000;
+
+    @Param({ "1", "40" })
+    public int crds;
+
+    @Param({ "1", "-1", "9" })
+    public int level;
+
+    @Param({ "1", "4" })
+    public int threads;
+
+    private ByteArrayOutputStream crd;
+    private Path tarball;
+
+    @Setup
+    public void setup() throws IOException {
+        crd = new ByteArrayOutputStream();
+        crd.write(Serialization.asYaml(SyntheticResources.customResourceDefinition(CRD_PROPERTIES))
+                .getBytes(StandardCharsets.UTF_8));
+        tarball = Files.createTempFile("helm-benchmark", ".tar.gz");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(tarball);
+    }
+
+    @Benchmark
+    public String writeTarball() throws IOException {
+        try (TarballWriter writer = new TarballWriter(tarball, true, level, threads, 0)) {
+            for (int index = 0; index < crds; index++) {
+                writer.addFile("app/crds/crd-" + index + ".yaml", crd);
+            }
+
+            writer.close();
+            return writer.getSha256();
+        }
+    }
+}
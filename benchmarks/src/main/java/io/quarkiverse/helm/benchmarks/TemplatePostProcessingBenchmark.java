@@ -0,0 +1,84 @@
+package io.quarkiverse.helm.benchmarks;
+
+import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.END_EXPRESSION_TOKEN;
+import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.SEPARATOR_QUOTES;
+import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.SEPARATOR_TOKEN;
+import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.START_EXPRESSION_TOKEN;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import io.dekorate.utils.Serialization;
+import io.quarkiverse.helm.deployment.utils.YamlExpressionTokenWriter;
+
+/**
+ * Compares the post-processing of the serialized resources using chained `String.replaceAll` calls with the
+ * {@link YamlExpressionTokenWriter} that is used by the Helm chart writer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplatePostProcessingBenchmark {
+
+    private static final String START_TAG = "{{";
+    private static final String END_TAG = "}}";
+    private static final String EMPTY = "";
+
+    @Param({ "CONFIG_MAP", "CUSTOM_RESOURCE_DEFINITION" })
+    public SyntheticResources.Kind kind;
+
+    @Param({ "100", "10000" })
+    public int entries;
+
+    private Map<Object, Object> resource;
+
+    @Setup
+    public void setup() {
+        resource = SyntheticResources.large(kind, entries);
+    }
+
+    @Benchmark
+    public void replaceAllChain() throws IOException {
+        String adaptedString = Serialization.yamlMapper().writeValueAsString(resource)
+                .replaceAll(Pattern.quote("\"" + START_TAG), START_TAG)
+                .replaceAll(Pattern.quote(END_TAG + "\""), END_TAG)
+                .replaceAll("\"" + START_EXPRESSION_TOKEN, EMPTY)
+                .replaceAll(END_EXPRESSION_TOKEN + "\"", EMPTY)
+                .replaceAll(SEPARATOR_QUOTES, "\"")
+                .replaceAll(SEPARATOR_TOKEN, System.lineSeparator())
+                .replaceAll("\\\\\\n(\\s)*\\\\", EMPTY);
+
+        try (Writer writer = Writer.nullWriter()) {
+            writer.write(adaptedString);
+        }
+    }
+
+    @Benchmark
+    public void tokenWriter() throws IOException {
+        try (Writer writer = new YamlExpressionTokenWriter(Writer.nullWriter())) {
+            Serialization.yamlMapper().writer()
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .writeValue(writer, resource);
+        }
+    }
+}
@@ -207,4 +207,68 @@ public class HelmChartConfig {
      */
     @ConfigItem(defaultValue = "true")
     public boolean mapSystemProperties;
+
+    /**
+     * If enabled, the Helm charts of all the deployment targets (for example, `kubernetes`, `openshift` and `knative`) will
+     * be generated concurrently.
+     */
+    @ConfigItem(defaultValue = "false")
+    public boolean parallelGeneration;
+
+    /**
+     * If enabled, the extension will store a fingerprint of the generated Kubernetes manifests, the Helm configuration
+     * and the files from the input directory into the output folder. The next builds will skip the generation of the
+     * Helm chart (including the tarball) when this fingerprint does not change.
+     */
+    @ConfigItem(defaultValue = "false")
+    public boolean incremental;
+
+    /**
+     * If enabled, the values files of the profiles (for example, `values.dev.yaml`) will only contain the values that are
+     * different from the ones in the `values.yaml` file. Helm layers the values files on top of the `values.yaml` file of the
+     * chart, so the result is the same when installing the chart with `helm install -f values.dev.yaml`.
+     */
+    @ConfigItem(defaultValue = "false")
+    public boolean deltaProfileValues;
+
+    /**
+     * If enabled, the Helm chart is generated into a staging folder and only the files whose content changed are written into
+     * the output folder. The files that are not generated anymore are deleted, and the other files are left untouched, so
+     * their modification time does not change.
+     */
+    @ConfigItem(defaultValue = "false")
+    public boolean differentialWrite;
+
+    /**
+     * If enabled, the additional files of the input directory (for example, `README.md`, `LICENSE` or the `crds` folder) are
+     * hard linked into the Helm chart instead of being copied, which is faster for large files. The files are copied when
+     * the input directory and the output folder are not in the same file system. Note that changing a linked file in the
+     * output folder also changes it in the input directory.
+     */
+    @ConfigItem(defaultValue = "false")
+    public boolean hardLinkAdditionalFiles;
+
+    /**
+     * The gzip compression level of the tarball, from 0 (no compression) to 9 (best compression), or -1 for the default
+     * level.
+     */
+    @ConfigItem(defaultValue = "-1")
+    public int compressionLevel;
+
+    /**
+     * The number of threads compressing the tarball. With more than one thread, the tarball is compressed in blocks that
+     * are compressed in parallel and written as consecutive gzip members, which Helm reads as a single gzip file.
+     */
+    @ConfigItem(defaultValue = "1")
+    public int compressionThreads;
+
+    /**
+     * If enabled, the tarball is reproducible: two builds of the same chart produce the same bytes. The entries are always
+     * written in the same order (the generated files first, as they are written, then the copied files sorted by name) and
+     * have the same owner, mode and modification time, which is taken from the `SOURCE_DATE_EPOCH` environment variable or
+     * is the epoch. A `.sha256` file with the digest of the tarball is written next to it, so the digest can be used as a
+     * cache key.
+     */
+    @ConfigItem(defaultValue = "false")
+    public boolean reproducibleTarball;
 }
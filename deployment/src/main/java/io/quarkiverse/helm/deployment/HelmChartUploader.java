@@ -2,63 +2,119 @@ package io.quarkiverse.helm.deployment;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.Reader;
-import java.net.Authenticator;
 import java.net.HttpURLConnection;
-import java.net.PasswordAuthentication;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jboss.logging.Logger;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import io.dekorate.utils.Serialization;
 import io.dekorate.utils.Strings;
+import io.quarkiverse.helm.deployment.utils.DigestUtils;
 
 public final class HelmChartUploader {
 
-    private static Logger LOGGER = Logger.getLogger(HelmProcessor.class);
+    private static final Logger LOGGER = Logger.getLogger(HelmChartUploader.class);
 
-    private static String APPLICATION_GZIP = "application/gzip";
-    private static final String CONTENT_TYPE = "Content-Type";
-    private static String POST = "POST";
-    private static String PUT = "PUT";
+    static final String APPLICATION_GZIP = "application/gzip";
+    static final String CONTENT_TYPE = "Content-Type";
+    static final String POST = "POST";
+    static final String PUT = "PUT";
+    static final String HEAD = "HEAD";
+    static final String AUTHORIZATION = "Authorization";
+    private static final String BASIC = "Basic ";
+    private static final String BEARER = "Bearer ";
+    private static final String ETAG = "ETag";
+    private static final String X_CHECKSUM_SHA1 = "X-Checksum-Sha1";
+    private static final String X_CHECKSUM_SHA256 = "X-Checksum-Sha256";
+    private static final String NEXUS_SHA1_PREFIX = "{SHA1{";
+    private static final String NEXUS_SHA1_SUFFIX = "}}";
+    private static final int SHA1_LENGTH = 40;
+    private static final String CHARTMUSEUM_API_PATH = "/api/charts";
+    private static final String INDEX_FILE = "index.yaml";
+    static final String UPLOADED_MESSAGE = "Helm chart was successfully uploaded to the Helm repository.";
 
     private HelmChartUploader() {
 
     }
 
-    static void pushToHelmRepository(File tarball, HelmRepository helmRepository) {
+    /**
+     * Pushes the chart with the client configured in the property `quarkus.helm.repository.client`.
+     *
+     * @return false if the push was skipped because the repository already has the same chart.
+     */
+    public static boolean pushToHelmRepository(File tarball, String chartName, String chartVersion,
+            HelmRepository helmRepository) {
         validate(helmRepository);
+        if (helmRepository.client == HelmRepositoryClient.HTTP_CLIENT) {
+            return HttpClientHelmChartUploader.pushToHelmRepository(tarball, chartName, chartVersion, helmRepository);
+        }
+
         try {
-            LOGGER.info("Pushing the Helm Chart at '" + tarball.getName() + "' to the repository: " + helmRepository.url.get());
-            HttpURLConnection connection = deductConnectionByRepositoryType(tarball, helmRepository);
+            if (helmRepository.skipIfUnchanged && isAlreadyInRepository(tarball, chartName, chartVersion, helmRepository)) {
+                logSkippedPush(tarball, helmRepository);
+                return false;
+            }
 
-            writeFileOnConnection(tarball, connection);
+            logPush(tarball, helmRepository);
+            HttpURLConnection connection = deductConnectionByRepositoryType(tarball, helmRepository);
+            try {
+                writeFileOnConnection(tarball, connection);
 
-            if (connection.getResponseCode() >= HttpURLConnection.HTTP_MULT_CHOICE) {
-                String response;
-                if (connection.getErrorStream() != null) {
-                    response = inputStreamToString(connection.getErrorStream(), Charset.defaultCharset());
-                } else if (connection.getInputStream() != null) {
-                    response = inputStreamToString(connection.getInputStream(), Charset.defaultCharset());
+                if (connection.getResponseCode() >= HttpURLConnection.HTTP_MULT_CHOICE) {
+                    String response;
+                    if (connection.getErrorStream() != null) {
+                        response = inputStreamToString(connection.getErrorStream(), Charset.defaultCharset());
+                    } else if (connection.getInputStream() != null) {
+                        response = inputStreamToString(connection.getInputStream(), Charset.defaultCharset());
+                    } else {
+                        response = "No details provided";
+                    }
+                    throw uploadFailure(response);
                 } else {
-                    response = "No details provided";
+                    LOGGER.info(UPLOADED_MESSAGE);
                 }
-                throw new RuntimeException("Couldn't upload the Helm chart to the Helm repository: " + response);
-            } else {
-                LOGGER.info("Helm chart was successfully uploaded to the Helm repository.");
+            } finally {
+                connection.disconnect();
             }
-            connection.disconnect();
+
+            return true;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    static void logSkippedPush(File tarball, HelmRepository repository) {
+        LOGGER.info("The Helm Chart at '" + tarball.getName() + "' is already in the repository: " + repository.url.get()
+                + ". Skipping the push of " + tarball.length() + " bytes.");
+    }
+
+    static void logPush(File tarball, HelmRepository repository) {
+        LOGGER.info("Pushing the Helm Chart at '" + tarball.getName() + "' to the repository: " + repository.url.get());
+    }
+
+    static RuntimeException uploadFailure(String response) {
+        return new RuntimeException("Couldn't upload the Helm chart to the Helm repository: " + response);
+    }
+
     private static void validate(HelmRepository repository) {
         if (repository.url.isEmpty() || Strings.isNullOrEmpty(repository.url.get())) {
             throw new RuntimeException("The push to a Helm repository is enabled (the property `quarkus.helm.repository.push` "
@@ -76,61 +132,254 @@ public final class HelmChartUploader {
                     + "is true), but either the username (the property `quarkus.helm.repository.username`) "
                     + "or the password (the property `quarkus.helm.repository.password`) was not set.");
         }
+
+        if (Strings.isNotNullOrEmpty(repository.getToken()) && Strings.isNotNullOrEmpty(repository.getUsername())) {
+            throw new RuntimeException("The push to a Helm repository is enabled (the property `quarkus.helm.repository.push` "
+                    + "is true), but both the token (the property `quarkus.helm.repository.token`) and the username "
+                    + "(the property `quarkus.helm.repository.username`) were set.");
+        }
     }
 
+    /**
+     * Streams the file into the request body: the connection is in fixed length streaming mode, so the content is sent as
+     * it's transferred from the file channel instead of being buffered in memory.
+     */
     private static void writeFileOnConnection(File file, HttpURLConnection connection) throws IOException {
-        try (FileInputStream fileInputStream = new FileInputStream(file)) {
-            copyToOutputStream(fileInputStream, connection.getOutputStream());
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                OutputStream os = connection.getOutputStream()) {
+            WritableByteChannel target = Channels.newChannel(os);
+            long size = file.length();
+            long position = 0;
+            while (position < size) {
+                long transferred = channel.transferTo(position, size - position, target);
+                if (transferred <= 0) {
+                    throw new IOException("The file '" + file + "' changed while it was uploaded");
+                }
+
+                position += transferred;
+            }
         }
     }
 
     private static HttpURLConnection deductConnectionByRepositoryType(File tarball, HelmRepository repository)
             throws IOException {
-        if (repository.type.get() == HelmRepositoryType.NEXUS) {
-            String url = formatRepositoryURL(tarball, repository);
-            if (url.endsWith(".tar.gz")) {
-                url = url.replaceAll("tar.gz$", "tgz");
-            }
-            final HttpURLConnection connection = createConnection(repository, url);
-            connection.setRequestMethod(PUT);
-            return connection;
-        } else if (repository.type.get() == HelmRepositoryType.ARTIFACTORY) {
-            final HttpURLConnection connection = createConnection(repository, formatRepositoryURL(tarball, repository));
-            connection.setRequestMethod(PUT);
-            return connection;
+        final HttpURLConnection connection = createConnection(repository, deductUploadURL(tarball, repository), tarball);
+        connection.setRequestMethod(deductUploadMethod(repository));
+        return connection;
+    }
+
+    /**
+     * @return the URL to upload the chart to: the URL of the chart for Nexus and Artifactory, and the URL of the API for
+     *         ChartMuseum.
+     */
+    static String deductUploadURL(File tarball, HelmRepository repository) {
+        if (isChartURLRepository(repository)) {
+            return deductChartURL(tarball, repository);
         }
 
         // chartmuseum
-        return createConnection(repository, repository.url.get());
+        return repository.url.get();
+    }
+
+    /**
+     * @return PUT for Nexus and Artifactory, and POST for ChartMuseum that accepts the charts as the body of the request.
+     */
+    static String deductUploadMethod(HelmRepository repository) {
+        return isChartURLRepository(repository) ? PUT : POST;
+    }
+
+    private static boolean isChartURLRepository(HelmRepository repository) {
+        return repository.type.get() == HelmRepositoryType.NEXUS
+                || repository.type.get() == HelmRepositoryType.ARTIFACTORY;
+    }
+
+    /**
+     * @return the URL of the chart in the Nexus and Artifactory repositories.
+     */
+    static String deductChartURL(File tarball, HelmRepository repository) {
+        String url = formatRepositoryURL(tarball, repository);
+        if (repository.type.get() == HelmRepositoryType.NEXUS && url.endsWith(".tar.gz")) {
+            url = url.replaceAll("tar.gz$", "tgz");
+        }
+
+        return url;
+    }
+
+    /**
+     * Checks whether the repository already has the same version of the chart with the same digest: from the `index.yaml`
+     * file for ChartMuseum, and from the checksum headers of the chart for Nexus and Artifactory.
+     *
+     * @return false if the chart is not in the repository, or if it's not possible to know it.
+     */
+    private static boolean isAlreadyInRepository(File tarball, String chartName, String chartVersion,
+            HelmRepository repository) {
+        try {
+            if (repository.type.get() == HelmRepositoryType.CHARTMUSEUM) {
+                String digest = findDigestInIndex(chartName, chartVersion, repository);
+                return digest != null && digest.equalsIgnoreCase(DigestUtils.sha256(tarball.toPath()));
+            }
+
+            return hasSameChecksum(repository, deductChartURL(tarball, repository), tarball);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debugf("Could not check whether the Helm chart is already in the repository. Caused by: %s",
+                    e.getMessage());
+            return false;
+        }
+    }
+
+    private static String findDigestInIndex(String chartName, String chartVersion, HelmRepository repository)
+            throws IOException {
+        HttpURLConnection connection = openConnection(repository, deductIndexURL(repository));
+        try {
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                return null;
+            }
+
+            try (InputStream is = connection.getInputStream()) {
+                return findDigestInIndex(chartName, chartVersion, is);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * @return the URL of the `index.yaml` file of ChartMuseum.
+     */
+    static String deductIndexURL(HelmRepository repository) {
+        // the charts are uploaded to the API of ChartMuseum, and the index is at the root of the server
+        String url = StringUtils.removeEnd(StringUtils.removeEnd(repository.url.get(), "/"), CHARTMUSEUM_API_PATH);
+        return url + "/" + INDEX_FILE;
+    }
+
+    /**
+     * @return the digest of the given version of the chart in the index, or null if the index doesn't have it.
+     */
+    static String findDigestInIndex(String chartName, String chartVersion, InputStream is) throws IOException {
+        Map<String, Object> index = Serialization.yamlMapper().readValue(is, new TypeReference<Map<String, Object>>() {
+        });
+
+        Object entries = index.get("entries");
+        Object versions = entries instanceof Map ? ((Map<?, ?>) entries).get(chartName) : null;
+        if (versions instanceof List) {
+            for (Object version : (List<?>) versions) {
+                if (version instanceof Map && chartVersion.equals(String.valueOf(((Map<?, ?>) version).get("version")))) {
+                    Object digest = ((Map<?, ?>) version).get("digest");
+                    return digest == null ? null : digest.toString();
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean hasSameChecksum(HelmRepository repository, String url, File tarball) throws IOException {
+        HttpURLConnection connection = openConnection(repository, url);
+        connection.setRequestMethod(HEAD);
+        try {
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                return false;
+            }
+
+            return hasSameChecksum(tarball, connection.getContentLengthLong(), connection::getHeaderField);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Compares the tarball with the length and the checksum headers of the chart in the repository.
+     *
+     * @param contentLength the length of the chart in the repository, or -1 if it's unknown.
+     * @param headers the values of the response headers by name.
+     */
+    static boolean hasSameChecksum(File tarball, long contentLength, UnaryOperator<String> headers) throws IOException {
+        if (contentLength >= 0 && contentLength != tarball.length()) {
+            return false;
+        }
+
+        // Artifactory returns the checksums of the artifacts in headers
+        String sha256 = headers.apply(X_CHECKSUM_SHA256);
+        if (Strings.isNotNullOrEmpty(sha256)) {
+            return sha256.equalsIgnoreCase(DigestUtils.sha256(tarball.toPath()));
+        }
+
+        // and Nexus, in the entity tag: "{SHA1{<sha1>}}"
+        String sha1 = headers.apply(X_CHECKSUM_SHA1);
+        if (Strings.isNullOrEmpty(sha1)) {
+            sha1 = toSha1(headers.apply(ETAG));
+        }
+
+        return Strings.isNotNullOrEmpty(sha1) && sha1.equalsIgnoreCase(DigestUtils.sha1(tarball.toPath()));
+    }
+
+    private static String toSha1(String entityTag) {
+        if (entityTag == null) {
+            return null;
+        }
+
+        String sha1 = StringUtils.removeStart(entityTag.trim(), "W/");
+        sha1 = StringUtils.strip(sha1, "\"");
+        if (sha1.startsWith(NEXUS_SHA1_PREFIX) && sha1.endsWith(NEXUS_SHA1_SUFFIX)) {
+            sha1 = sha1.substring(NEXUS_SHA1_PREFIX.length(), sha1.length() - NEXUS_SHA1_SUFFIX.length());
+        }
+
+        return sha1.length() == SHA1_LENGTH ? sha1 : null;
     }
 
     private static String formatRepositoryURL(File file, HelmRepository repository) {
         return String.format("%s%s", StringUtils.appendIfMissing(repository.url.get(), "/"), file.getName());
     }
 
-    private static HttpURLConnection createConnection(HelmRepository repository, String url) throws IOException {
-        final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+    private static HttpURLConnection createConnection(HelmRepository repository, String url, File tarball)
+            throws IOException {
+        final HttpURLConnection connection = openConnection(repository, url);
         connection.setDoOutput(true);
         connection.setRequestMethod(POST);
         connection.setRequestProperty(CONTENT_TYPE, APPLICATION_GZIP);
-        verifyAndSetAuthentication(repository);
+        // the length is known, so the tarball does not need to be buffered to compute it
+        connection.setFixedLengthStreamingMode(tarball.length());
         return connection;
     }
 
-    private static void verifyAndSetAuthentication(HelmRepository helmRepository) {
-        if (Strings.isNotNullOrEmpty(helmRepository.getUsername()) && Strings.isNotNullOrEmpty(helmRepository.getPassword())) {
-            PasswordAuthentication authentication = new PasswordAuthentication(helmRepository.getUsername(),
-                    helmRepository.getPassword().toCharArray());
+    private static HttpURLConnection openConnection(HelmRepository repository, String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(toTimeout(repository.connectTimeout));
+        connection.setReadTimeout(toTimeout(repository.readTimeout));
+        // the credentials are sent with every request instead of being set in the global authenticator of the JVM, and
+        // the request is not sent again when the server asks for them, which is not possible in streaming mode anyway
+        setPreemptiveAuthentication(repository, connection);
+        return connection;
+    }
 
-            Authenticator.setDefault(new Authenticator() {
-                @Override
-                protected PasswordAuthentication getPasswordAuthentication() {
-                    return authentication;
-                }
-            });
+    private static int toTimeout(Duration duration) {
+        return (int) Math.min(duration.toMillis(), Integer.MAX_VALUE);
+    }
+
+    private static void setPreemptiveAuthentication(HelmRepository helmRepository, HttpURLConnection connection) {
+        String authorization = deductAuthorization(helmRepository);
+        if (authorization != null) {
+            connection.setRequestProperty(AUTHORIZATION, authorization);
         }
     }
 
+    /**
+     * @return the value of the Authorization header with the credentials of the repository: the bearer token, or the
+     *         username and password with the basic scheme. Null if there are none.
+     */
+    static String deductAuthorization(HelmRepository helmRepository) {
+        if (Strings.isNotNullOrEmpty(helmRepository.getToken())) {
+            return BEARER + helmRepository.getToken();
+        }
+
+        if (Strings.isNotNullOrEmpty(helmRepository.getUsername()) && Strings.isNotNullOrEmpty(helmRepository.getPassword())) {
+            String credentials = helmRepository.getUsername() + ":" + helmRepository.getPassword();
+            return BASIC + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return null;
+    }
+
     private static String inputStreamToString(InputStream input, Charset charset) throws IOException {
         StringBuilder sb = new StringBuilder();
         try (Reader reader = new BufferedReader(new InputStreamReader(input, charset))) {
@@ -143,12 +392,4 @@ public final class HelmChartUploader {
         return sb.toString();
     }
 
-    private static void copyToOutputStream(InputStream source, OutputStream target) throws IOException {
-        byte[] buf = new byte[8192];
-        int length;
-        while ((length = source.read(buf)) != -1) {
-            target.write(buf, 0, length);
-        }
-    }
-
 }
@@ -3,25 +3,31 @@ package io.quarkiverse.helm.deployment;
 import static io.github.yamlpath.utils.StringUtils.EMPTY;
 import static io.quarkiverse.helm.deployment.HelmChartUploader.pushToHelmRepository;
 import static io.quarkiverse.helm.deployment.utils.SystemPropertiesUtils.getPropertyFromSystem;
-import static io.quarkiverse.helm.deployment.utils.SystemPropertiesUtils.getSystemProperties;
 import static io.quarkiverse.helm.deployment.utils.SystemPropertiesUtils.hasSystemProperties;
 import static io.quarkus.deployment.Capability.OPENSHIFT;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.microprofile.config.Config;
@@ -33,11 +39,22 @@ import io.dekorate.ConfigReference;
 import io.dekorate.Session;
 import io.dekorate.helm.config.HelmChartConfigBuilder;
 import io.dekorate.helm.config.HelmDependencyBuilder;
+import io.dekorate.helm.listener.HelmWriterSessionListener;
 import io.dekorate.kubernetes.config.ContainerBuilder;
 import io.dekorate.kubernetes.decorator.AddInitContainerDecorator;
 import io.dekorate.project.Project;
 import io.dekorate.utils.Strings;
-import io.quarkiverse.helm.deployment.decorators.LowPriorityAddEnvVarDecorator;
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.quarkiverse.helm.deployment.decorators.LowPriorityAddEnvVarsDecorator;
+import io.quarkiverse.helm.deployment.utils.BuildTimePropertyMatcher;
+import io.quarkiverse.helm.deployment.utils.ChartFingerprint;
+import io.quarkiverse.helm.deployment.utils.ChartFolderSync;
+import io.quarkiverse.helm.deployment.utils.CompiledYamlPath;
+import io.quarkiverse.helm.deployment.utils.HelmBuildReport;
+import io.quarkiverse.helm.deployment.utils.HelmBuildReport.Phase;
+import io.quarkiverse.helm.deployment.utils.ManifestSource;
+import io.quarkiverse.helm.deployment.utils.SystemPropertyExpression;
+import io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils;
 import io.quarkus.deployment.Capabilities;
 import io.quarkus.deployment.IsNormal;
 import io.quarkus.deployment.annotations.BuildProducer;
@@ -65,8 +82,17 @@ public class HelmProcessor {
     private static final String SERVICE_PORT_PLACEHOLDER = "::service-port";
     private static final String SPLIT = ":";
     private static final String PROPERTIES_CONFIG_SOURCE = "PropertiesConfigSource";
+    private static final String QUARKUS_HELM_PREFIX = "quarkus.helm.";
+    private static final String QUARKUS_HELM_REPOSITORY_PREFIX = QUARKUS_HELM_PREFIX + "repository.";
+    private static final String SOURCE_DATE_EPOCH = "SOURCE_DATE_EPOCH";
+    private static final String CONFIG_FINGERPRINT_NAME = "config";
+    private static final String INPUT_FINGERPRINT_NAME = "input";
+    private static final String MANIFEST_FINGERPRINT_NAME = "manifest";
+    private static final String EXTENSION_FINGERPRINT_NAME = "extension";
+    private static final String DEKORATE_FINGERPRINT_NAME = "dekorate";
+    private static final String STAGING_FOLDER_SUFFIX = "-staging";
     // Lazy loaded when calling `isBuildTimeProperty(xxx)`.
-    private static Set<String> buildProperties;
+    private static volatile BuildTimePropertyMatcher buildTimePropertyMatcher;
 
     @BuildStep(onlyIf = { HelmEnabled.class, IsNormal.class })
     void mapSystemPropertiesIfEnabled(Capabilities capabilities, ApplicationInfoBuildItem info, HelmChartConfig helmConfig,
@@ -74,13 +100,21 @@ public class HelmProcessor {
         if (helmConfig.mapSystemProperties) {
             String deploymentName = getDeploymentName(capabilities, info);
             Config config = ConfigProvider.getConfig();
+            // the same system properties are usually used by many properties, so they are added all together once
+            Map<String, String> envs = new LinkedHashMap<>();
+            // only for this build, so the raw values, which might contain secrets, are not kept after it
+            Map<String, SystemPropertyExpression> expressions = new HashMap<>();
             for (String propName : config.getPropertyNames()) {
                 ConfigValue propValue = config.getConfigValue(propName);
                 String rawValue = propValue.getRawValue();
                 if (isPropertiesConfigSource(propValue.getSourceName()) && !isBuildTimeProperty(propValue.getName())) {
-                    mapProperty(deploymentName, decorators, rawValue);
+                    mapProperty(envs, expressions, rawValue);
                 }
             }
+
+            if (!envs.isEmpty()) {
+                decorators.produce(new DecoratorBuildItem(new LowPriorityAddEnvVarsDecorator(deploymentName, envs)));
+            }
         }
     }
 
@@ -128,7 +162,14 @@ public class HelmProcessor {
             BuildProducer<ArtifactResultBuildItem> dummy,
             HelmChartConfig config) {
         if (dekorateOutput.isPresent()) {
-            doGenerateResources(app, outputTarget, dekorateOutput.get(), generatedResources, config);
+            try {
+                doGenerateResources(app, outputTarget, dekorateOutput.get(), generatedResources, config);
+            } finally {
+                // the expressions and the clients of the repositories are only kept for the charts of this build
+                CompiledYamlPath.clearCache();
+                YamlExpressionParserUtils.clearCache();
+                HttpClientHelmChartUploader.clearClients();
+            }
         } else if (config.enabled) {
             LOGGER.warn("Quarkus Helm extension is skipped since no Quarkus Kubernetes extension is configured. ");
         }
@@ -151,9 +192,10 @@ public class HelmProcessor {
         Path outputFolder = getOutputDirectory(config, outputTarget);
 
         // Dekorate session writer
-        final QuarkusHelmWriterSessionListener helmWriter = new QuarkusHelmWriterSessionListener();
-        final Map<String, Set<File>> deploymentTargets = toDeploymentTargets(dekorateOutput.getGeneratedFiles(),
-                generatedResources);
+        final QuarkusHelmWriterSessionListener helmWriter = new QuarkusHelmWriterSessionListener(config);
+        Session session = (Session) dekorateOutput.getSession();
+        final Map<String, List<ManifestSource>> deploymentTargets = toDeploymentTargets(dekorateOutput.getGeneratedFiles(),
+                generatedResources, session);
 
         // Config
         io.dekorate.helm.config.HelmChartConfig dekorateHelmChartConfig = toDekorateHelmChartConfig(app, config);
@@ -162,17 +204,84 @@ public class HelmProcessor {
         // Deduct deployment target to push
         String deploymentTargetToPush = deductDeploymentTarget(config, deploymentTargets);
 
+        // Fingerprint of the inputs that are common to all the deployment targets
+        ChartFingerprint commonFingerprint = config.incremental
+                ? toCommonFingerprint(session, dekorateHelmChartConfig, valueReferencesFromConfig, inputFolder)
+                : null;
+
         // separate generated helm charts into the deployment targets
-        for (Map.Entry<String, Set<File>> filesInDeploymentTarget : deploymentTargets.entrySet()) {
-            String deploymentTarget = filesInDeploymentTarget.getKey();
+        Map<String, HelmBuildReport> reports = new ConcurrentHashMap<>();
+        Function<Map.Entry<String, List<ManifestSource>>, Map<String, String>> chartGenerator = manifestsInDeploymentTarget -> {
+            String deploymentTarget = manifestsInDeploymentTarget.getKey();
             Path chartOutputFolder = outputFolder.resolve(deploymentTarget);
-            deleteOutputHelmFolderIfExists(chartOutputFolder);
-            Map<String, String> generated = helmWriter.writeHelmFiles((Session) dekorateOutput.getSession(), project,
-                    dekorateHelmChartConfig,
-                    valueReferencesFromConfig,
-                    inputFolder,
-                    chartOutputFolder,
-                    filesInDeploymentTarget.getValue());
+            HelmBuildReport report = new HelmBuildReport(deploymentTarget);
+            reports.put(deploymentTarget, report);
+            try {
+                ChartFingerprint fingerprint = null;
+                if (commonFingerprint != null) {
+                    long start = System.nanoTime();
+                    fingerprint = new ChartFingerprint().addInputs(commonFingerprint);
+                    for (ManifestSource manifest : manifestsInDeploymentTarget.getValue()) {
+                        fingerprint.addInput(MANIFEST_FINGERPRINT_NAME, manifest.getContent());
+                    }
+
+                    Optional<Map<String, String>> unchanged = fingerprint.getGeneratedFilesIfUnchanged(chartOutputFolder);
+                    report.addDuration(Phase.FINGERPRINT, start);
+                    if (unchanged.isPresent()) {
+                        LOGGER.infof("Helm chart for '%s' is up to date. Skipping its generation.", deploymentTarget);
+                        report.setChartName(dekorateHelmChartConfig.getName());
+                        report.setUpToDate(true);
+                        report.finish();
+                        return unchanged.get();
+                    }
+                }
+
+                // with the differential write, the chart is generated into a staging folder that is then synchronized
+                Path writeFolder = config.differentialWrite
+                        ? outputFolder.resolve("." + deploymentTarget + STAGING_FOLDER_SUFFIX)
+                        : chartOutputFolder;
+                deleteOutputHelmFolderIfExists(writeFolder);
+                Map<String, String> generated = helmWriter.writeHelmFiles(session, project,
+                        dekorateHelmChartConfig,
+                        valueReferencesFromConfig,
+                        inputFolder,
+                        writeFolder,
+                        manifestsInDeploymentTarget.getValue(),
+                        report);
+
+                if (config.differentialWrite) {
+                    long start = System.nanoTime();
+                    ChartFolderSync sync = ChartFolderSync.sync(writeFolder, chartOutputFolder,
+                            Set.of(ChartFingerprint.FINGERPRINT_FILE, HelmBuildReport.REPORT_FILE));
+                    report.addDuration(Phase.SYNC, start);
+                    report.setSync(sync);
+                    generated = relocate(generated, writeFolder, chartOutputFolder);
+                }
+
+                if (fingerprint != null) {
+                    long start = System.nanoTime();
+                    fingerprint.write(chartOutputFolder, generated);
+                    report.addDuration(Phase.FINGERPRINT, start);
+                }
+
+                report.finish();
+                return generated;
+            } catch (IOException e) {
+                throw new RuntimeException("Error writing the Helm chart for '" + deploymentTarget + "'", e);
+            }
+        };
+
+        Map<String, Map<String, String>> generatedByDeploymentTarget = config.parallelGeneration
+                ? generateInParallel(deploymentTargets, chartGenerator)
+                : generateSequentially(deploymentTargets, chartGenerator);
+        LOGGER.debugf("YAMLPath expression cache: %d hits and %d misses", CompiledYamlPath.getHits(),
+                CompiledYamlPath.getMisses());
+
+        for (Map.Entry<String, Map<String, String>> generatedInDeploymentTarget : generatedByDeploymentTarget.entrySet()) {
+            String deploymentTarget = generatedInDeploymentTarget.getKey();
+            Map<String, String> generated = generatedInDeploymentTarget.getValue();
+
+            HelmBuildReport report = reports.get(deploymentTarget);
 
             // Push to Helm repository if enabled
             if (config.repository.push && deploymentTargetToPush.equals(deploymentTarget)) {
@@ -181,8 +290,121 @@ public class HelmProcessor {
                         .findFirst()
                         .orElseThrow(() -> new RuntimeException("Couldn't find the tarball file. There should have "
                                 + "been generated when pushing to a Helm repository is enabled."));
-                pushToHelmRepository(new File(tarball), config.repository);
+                long start = System.nanoTime();
+                File tarballFile = new File(tarball);
+                if (!pushToHelmRepository(tarballFile, dekorateHelmChartConfig.getName(),
+                        dekorateHelmChartConfig.getVersion(), config.repository)) {
+                    report.setSkippedPushBytes(tarballFile.length());
+                }
+
+                report.addDuration(Phase.PUSH, start);
             }
+
+            writeReport(report, outputFolder.resolve(deploymentTarget));
+        }
+    }
+
+    private void writeReport(HelmBuildReport report, Path chartOutputFolder) {
+        try {
+            Path reportFile = report.write(chartOutputFolder);
+            LOGGER.infof("%s. Report: %s", report.toSummary(), reportFile);
+        } catch (IOException e) {
+            LOGGER.warnf("Could not write the Helm build report into '%s'. Caused by: %s", chartOutputFolder, e.getMessage());
+        }
+    }
+
+    private ChartFingerprint toCommonFingerprint(Session session,
+            io.dekorate.helm.config.HelmChartConfig dekorateHelmChartConfig,
+            List<ConfigReference> valueReferencesFromConfig,
+            Path inputFolder) {
+        StringBuilder resolvedConfig = new StringBuilder();
+        Config config = ConfigProvider.getConfig();
+        StreamSupport.stream(config.getPropertyNames().spliterator(), false)
+                // the repository properties are only used to push the chart and contain the credentials
+                .filter(name -> name.startsWith(QUARKUS_HELM_PREFIX) && !name.startsWith(QUARKUS_HELM_REPOSITORY_PREFIX))
+                .sorted()
+                .forEach(name -> resolvedConfig.append(name).append('=')
+                        .append(config.getConfigValue(name).getValue()).append('\n'));
+        resolvedConfig.append(dekorateHelmChartConfig.getName()).append('\n');
+        resolvedConfig.append(dekorateHelmChartConfig.getVersion()).append('\n');
+        // the timestamp of the tarball entries
+        resolvedConfig.append(SOURCE_DATE_EPOCH).append('=').append(System.getenv(SOURCE_DATE_EPOCH)).append('\n');
+
+        List<ConfigReference> configReferences = new ArrayList<>(valueReferencesFromConfig);
+        session.getResourceRegistry().getConfigReferences()
+                .forEach(decorator -> configReferences.addAll(decorator.getConfigReferences()));
+        for (ConfigReference configReference : configReferences) {
+            resolvedConfig.append(configReference.getProperty()).append('|')
+                    .append(Arrays.toString(configReference.getPaths())).append('|')
+                    .append(configReference.getValue()).append('|')
+                    .append(configReference.getExpression()).append('|')
+                    .append(configReference.getProfile()).append('\n');
+        }
+
+        try {
+            return new ChartFingerprint()
+                    .addInput(CONFIG_FINGERPRINT_NAME, resolvedConfig.toString().getBytes(StandardCharsets.UTF_8))
+                    .addInputDirectory(INPUT_FINGERPRINT_NAME, inputFolder)
+                    .addGenerator(EXTENSION_FINGERPRINT_NAME, HelmProcessor.class)
+                    .addGenerator(DEKORATE_FINGERPRINT_NAME, HelmWriterSessionListener.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Error computing the fingerprint of the Helm inputs from '" + inputFolder + "'", e);
+        }
+    }
+
+    private Map<String, Map<String, String>> generateSequentially(Map<String, List<ManifestSource>> deploymentTargets,
+            Function<Map.Entry<String, List<ManifestSource>>, Map<String, String>> chartGenerator) {
+        Map<String, Map<String, String>> generatedByDeploymentTarget = new LinkedHashMap<>();
+        for (Map.Entry<String, List<ManifestSource>> manifestsInDeploymentTarget : deploymentTargets.entrySet()) {
+            generatedByDeploymentTarget.put(manifestsInDeploymentTarget.getKey(),
+                    chartGenerator.apply(manifestsInDeploymentTarget));
+        }
+
+        return generatedByDeploymentTarget;
+    }
+
+    private Map<String, Map<String, String>> generateInParallel(Map<String, List<ManifestSource>> deploymentTargets,
+            Function<Map.Entry<String, List<ManifestSource>>, Map<String, String>> chartGenerator) {
+        int threads = Math.min(deploymentTargets.size(), Runtime.getRuntime().availableProcessors());
+        if (threads <= 1) {
+            return generateSequentially(deploymentTargets, chartGenerator);
+        }
+
+        // The workers need the class loader of the build step to locate classpath resources like the notes template.
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Map<String, Future<Map<String, String>>> futures = new LinkedHashMap<>();
+            for (Map.Entry<String, List<ManifestSource>> manifestsInDeploymentTarget : deploymentTargets.entrySet()) {
+                futures.put(manifestsInDeploymentTarget.getKey(), executor.submit(() -> {
+                    Thread.currentThread().setContextClassLoader(classLoader);
+                    return chartGenerator.apply(manifestsInDeploymentTarget);
+                }));
+            }
+
+            Map<String, Map<String, String>> generatedByDeploymentTarget = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<Map<String, String>>> future : futures.entrySet()) {
+                generatedByDeploymentTarget.put(future.getKey(), waitFor(future.getKey(), future.getValue()));
+            }
+
+            return generatedByDeploymentTarget;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<String, String> waitFor(String deploymentTarget, Future<Map<String, String>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while generating the Helm chart for '" + deploymentTarget + "'", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new RuntimeException("Error generating the Helm chart for '" + deploymentTarget + "'", e.getCause());
         }
     }
 
@@ -227,7 +449,7 @@ public class HelmProcessor {
         }
     }
 
-    private String deductDeploymentTarget(HelmChartConfig config, Map<String, Set<File>> deploymentTargets) {
+    private String deductDeploymentTarget(HelmChartConfig config, Map<String, List<ManifestSource>> deploymentTargets) {
         if (config.repository.push) {
             // if enabled, use the deployment target from the user if set
             if (config.repository.deploymentTarget.isPresent()) {
@@ -249,6 +471,17 @@ public class HelmProcessor {
         return null;
     }
 
+    private Map<String, String> relocate(Map<String, String> generated, Path from, Path to) {
+        Map<String, String> relocated = new HashMap<>();
+        for (Map.Entry<String, String> file : generated.entrySet()) {
+            Path path = Paths.get(file.getKey());
+            relocated.put(path.startsWith(from) ? to.resolve(from.relativize(path)).toString() : file.getKey(),
+                    file.getValue());
+        }
+
+        return relocated;
+    }
+
     private void deleteOutputHelmFolderIfExists(Path outputFolder) {
         try {
             FileUtil.deleteIfExists(outputFolder);
@@ -275,9 +508,9 @@ public class HelmProcessor {
         return path;
     }
 
-    private Map<String, Set<File>> toDeploymentTargets(List<String> generatedFiles,
-            List<GeneratedKubernetesResourceBuildItem> generatedResources) {
-        Map<String, Set<File>> filesByDeploymentTarget = new HashMap<>();
+    private Map<String, List<ManifestSource>> toDeploymentTargets(List<String> generatedFiles,
+            List<GeneratedKubernetesResourceBuildItem> generatedResources, Session session) {
+        Map<String, List<ManifestSource>> manifestsByDeploymentTarget = new LinkedHashMap<>();
         for (String generatedFile : generatedFiles) {
             if (generatedFile.toLowerCase(Locale.ROOT).endsWith(".json")) {
                 // skip json files
@@ -286,38 +519,33 @@ public class HelmProcessor {
 
             File file = new File(generatedFile);
             String deploymentTarget = file.getName().substring(0, file.getName().indexOf("."));
-            if (filesByDeploymentTarget.containsKey(deploymentTarget)) {
+            if (manifestsByDeploymentTarget.containsKey(deploymentTarget)) {
                 // It's already included.
                 continue;
             }
 
-            Set<File> files = new HashSet<>();
-            if (!file.exists()) {
-                Optional<byte[]> content = generatedResources.stream()
-                        .filter(resource -> file.getName().equals(resource.getName()))
-                        .map(GeneratedKubernetesResourceBuildItem::getContent)
-                        .findFirst();
-                if (content.isPresent()) {
-                    // The dekorate output generated files are sometimes not persisted yet, so we need to workaround it by
-                    // creating a temp file with the content from generatedResources.
-                    try {
-                        File tempFile = File.createTempFile("tmp", file.getName());
-                        tempFile.deleteOnExit();
-                        Files.write(tempFile.toPath(), content.get());
-                        files.add(tempFile);
-                    } catch (IOException ignored) {
-                        // if we could not create the temp file, we add the one from
-                        files.add(file);
-                    }
-                }
-            } else {
-                files.add(file);
+            List<ManifestSource> manifests = new ArrayList<>();
+            Optional<byte[]> content = generatedResources.stream()
+                    .filter(resource -> file.getName().equals(resource.getName()))
+                    .map(GeneratedKubernetesResourceBuildItem::getContent)
+                    .findFirst();
+            KubernetesList resources = session.getGeneratedResources().get(deploymentTarget);
+            if (content.isPresent() && resources != null) {
+                // The content was serialized from the resources of the dekorate session, so we use the resources to
+                // not parse the content again.
+                manifests.add(ManifestSource.fromResources(file.getName(), resources, content.get()));
+            } else if (content.isPresent()) {
+                // The dekorate output generated files are sometimes not persisted yet, so we use the content from
+                // generatedResources that is already in memory.
+                manifests.add(ManifestSource.fromBytes(file.getName(), content.get()));
+            } else if (file.exists()) {
+                manifests.add(ManifestSource.fromFile(file));
             }
 
-            filesByDeploymentTarget.put(deploymentTarget, files);
+            manifestsByDeploymentTarget.put(deploymentTarget, manifests);
         }
 
-        return filesByDeploymentTarget;
+        return manifestsByDeploymentTarget;
     }
 
     private io.dekorate.helm.config.HelmChartConfig toDekorateHelmChartConfig(ApplicationInfoBuildItem app,
@@ -418,29 +646,31 @@ public class HelmProcessor {
         return optional.map(l -> l.toArray(new String[0])).orElse(new String[0]);
     }
 
-    private String mapProperty(String deploymentName, BuildProducer<DecoratorBuildItem> decorators, String property) {
+    private String mapProperty(Map<String, String> envs, Map<String, SystemPropertyExpression> expressions,
+            String property) {
         if (!hasSystemProperties(property)) {
             return property;
         }
 
-        String lastPropertyValue = property;
-        for (String systemProperty : getSystemProperties(property)) {
-            String defaultValue = EMPTY;
-            if (systemProperty.contains(SPLIT)) {
-                int splitPosition = systemProperty.indexOf(SPLIT);
-                defaultValue = systemProperty.substring(splitPosition + SPLIT.length());
-                systemProperty = systemProperty.substring(0, splitPosition);
+        // the same raw value is usually shared by several properties, so it's parsed once
+        return mapProperty(envs, expressions.computeIfAbsent(property, SystemPropertyExpression::parse));
+    }
 
-                if (hasSystemProperties(defaultValue)) {
-                    defaultValue = mapProperty(deploymentName, decorators, defaultValue);
-                }
+    private String mapProperty(Map<String, String> envs, SystemPropertyExpression expression) {
+        String lastPropertyValue = expression.getRawValue();
+        for (SystemPropertyExpression.SystemProperty systemProperty : expression.getSystemProperties()) {
+            String defaultValue = EMPTY;
+            if (systemProperty.getDefaultValue() != null) {
+                defaultValue = mapProperty(envs, systemProperty.getDefaultValue());
             }
 
             // Check whether the system property is provided:
-            defaultValue = getPropertyFromSystem(systemProperty, defaultValue);
+            defaultValue = getPropertyFromSystem(systemProperty.getName(), defaultValue);
 
-            decorators.produce(new DecoratorBuildItem(
-                    new LowPriorityAddEnvVarDecorator(deploymentName, systemProperty, defaultValue)));
+            // When the same system property is found several times, the last value wins, and it's moved to the position of
+            // its last occurrence as when every system property was added by its own decorator
+            envs.remove(systemProperty.getName());
+            envs.put(systemProperty.getName(), defaultValue);
 
             lastPropertyValue = defaultValue;
         }
@@ -468,22 +698,17 @@ public class HelmProcessor {
     }
 
     private boolean isBuildTimeProperty(String name) {
-        if (buildProperties == null) {
-            buildProperties = new HashSet<>();
+        if (buildTimePropertyMatcher == null) {
             try {
-                Scanner scanner = new Scanner(new File(HelmProcessor.class.getResource(BUILD_TIME_PROPERTIES).getFile()));
-                while (scanner.hasNextLine()) {
-                    buildProperties.add(scanner.nextLine());
-                }
+                buildTimePropertyMatcher = BuildTimePropertyMatcher.fromResource(BUILD_TIME_PROPERTIES);
             } catch (Exception e) {
                 LOGGER.debugf("Can't read the build time properties file at '%s'. Caused by: %s",
                         BUILD_TIME_PROPERTIES,
                         e.getMessage());
+                buildTimePropertyMatcher = BuildTimePropertyMatcher.empty();
             }
         }
 
-        return buildProperties.stream().anyMatch(build -> name.matches(build) // It's a regular expression
-                || (build.endsWith(".") && name.startsWith(build)) // contains with
-                || name.equals(build)); // or it's equal to
+        return buildTimePropertyMatcher.matches(name);
     }
 }
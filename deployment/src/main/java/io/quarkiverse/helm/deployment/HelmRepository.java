@@ -1,5 +1,6 @@
 package io.quarkiverse.helm.deployment;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import io.dekorate.utils.Strings;
@@ -38,6 +39,37 @@ public class HelmRepository {
      */
     @ConfigItem
     public Optional<String> password;
+    /**
+     * The Helm repository token, sent as a bearer token. It can't be set together with the username and password.
+     */
+    @ConfigItem
+    public Optional<String> token;
+    /**
+     * If true, the chart is not pushed when the repository already has the same version of the chart with the same digest.
+     * The digest is looked up in the `index.yaml` file for ChartMuseum, and in the checksum headers of the chart for
+     * Artifactory and Nexus. The chart is pushed when the digest can't be found.
+     */
+    @ConfigItem(defaultValue = "false")
+    public boolean skipIfUnchanged;
+    /**
+     * The timeout to connect to the Helm repository.
+     */
+    @ConfigItem(defaultValue = "30S")
+    public Duration connectTimeout;
+    /**
+     * The timeout to read the response of the Helm repository, once the chart has been uploaded. With the `HTTP_CLIENT`
+     * client, it's the timeout of the whole request, including the upload of the chart.
+     */
+    @ConfigItem(defaultValue = "5M")
+    public Duration readTimeout;
+    /**
+     * The HTTP client to push the chart with. Options are: `URL_CONNECTION` that opens a new connection for every request,
+     * and `HTTP_CLIENT` that sends the requests asynchronously, with HTTP/2 when the repository is served over TLS and
+     * supports it, and reuses the connections to the repository for the lookups of the charts and all the pushes of the
+     * build.
+     */
+    @ConfigItem(defaultValue = "url-connection")
+    public HelmRepositoryClient client;
 
     public String getUsername() {
         return username.filter(Strings::isNotNullOrEmpty).orElse(null);
@@ -46,4 +78,8 @@ public class HelmRepository {
     public String getPassword() {
         return password.filter(Strings::isNotNullOrEmpty).orElse(null);
     }
+
+    public String getToken() {
+        return token.filter(Strings::isNotNullOrEmpty).orElse(null);
+    }
 }
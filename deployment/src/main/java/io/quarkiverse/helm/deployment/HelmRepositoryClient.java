@@ -0,0 +1,6 @@
+package io.quarkiverse.helm.deployment;
+
+public enum HelmRepositoryClient {
+    URL_CONNECTION,
+    HTTP_CLIENT
+}
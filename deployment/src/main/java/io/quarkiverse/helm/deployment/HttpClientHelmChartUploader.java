@@ -0,0 +1,196 @@
+package io.quarkiverse.helm.deployment;
+
+import static io.quarkiverse.helm.deployment.HelmChartUploader.APPLICATION_GZIP;
+import static io.quarkiverse.helm.deployment.HelmChartUploader.AUTHORIZATION;
+import static io.quarkiverse.helm.deployment.HelmChartUploader.CONTENT_TYPE;
+import static io.quarkiverse.helm.deployment.HelmChartUploader.HEAD;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jboss.logging.Logger;
+
+import io.quarkiverse.helm.deployment.utils.DigestUtils;
+
+/**
+ * Pushes the charts with the {@link HttpClient} of the JDK: the requests are sent asynchronously, with HTTP/2 when the
+ * repository is served over TLS and supports it. The same client is used for all the pushes to a repository during the
+ * build, so the lookup of a chart and the pushes reuse the same connections, which are released with the clients at the
+ * end of the build (see {@link #clearClients()}). The requests are the same as the ones of {@link HelmChartUploader}.
+ */
+final class HttpClientHelmChartUploader {
+
+    private static final Logger LOGGER = Logger.getLogger(HttpClientHelmChartUploader.class);
+    private static final String HTTPS = "https";
+    // the clients by repository URL, kept until the end of the build
+    private static final Map<String, HttpClient> CLIENTS = new ConcurrentHashMap<>();
+
+    private HttpClientHelmChartUploader() {
+
+    }
+
+    /**
+     * Pushes the chart and waits for the response of the repository.
+     *
+     * @return false if the push was skipped because the repository already has the same chart.
+     */
+    static boolean pushToHelmRepository(File tarball, String chartName, String chartVersion, HelmRepository repository) {
+        try {
+            return pushAsync(tarball, chartName, chartVersion, repository).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * @return the future completed with false if the push was skipped because the repository already has the same chart.
+     */
+    static CompletableFuture<Boolean> pushAsync(File tarball, String chartName, String chartVersion,
+            HelmRepository repository) {
+        HttpClient client = getClient(repository);
+        CompletableFuture<Boolean> alreadyInRepository = repository.skipIfUnchanged
+                ? isAlreadyInRepository(client, tarball, chartName, chartVersion, repository)
+                : CompletableFuture.completedFuture(false);
+
+        return alreadyInRepository.thenCompose(unchanged -> {
+            if (unchanged) {
+                HelmChartUploader.logSkippedPush(tarball, repository);
+                return CompletableFuture.completedFuture(false);
+            }
+
+            HelmChartUploader.logPush(tarball, repository);
+            return upload(client, tarball, repository).thenApply(response -> {
+                if (response.statusCode() >= HttpURLConnection.HTTP_MULT_CHOICE) {
+                    throw HelmChartUploader.uploadFailure(
+                            response.body() == null || response.body().isEmpty() ? "No details provided" : response.body());
+                }
+
+                LOGGER.info(HelmChartUploader.UPLOADED_MESSAGE);
+                return true;
+            });
+        });
+    }
+
+    private static CompletableFuture<HttpResponse<String>> upload(HttpClient client, File tarball,
+            HelmRepository repository) {
+        HttpRequest.BodyPublisher body;
+        try {
+            // the body is streamed from the file with its length
+            body = HttpRequest.BodyPublishers.ofFile(tarball.toPath());
+        } catch (FileNotFoundException e) {
+            return CompletableFuture.failedFuture(new UncheckedIOException(e));
+        }
+
+        HttpRequest request = newRequest(repository, HelmChartUploader.deductUploadURL(tarball, repository))
+                .header(CONTENT_TYPE, APPLICATION_GZIP)
+                .method(HelmChartUploader.deductUploadMethod(repository), body)
+                .build();
+
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Same lookups as {@link HelmChartUploader}: the `index.yaml` file for ChartMuseum, and the checksum headers of the chart
+     * for Nexus and Artifactory.
+     */
+    private static CompletableFuture<Boolean> isAlreadyInRepository(HttpClient client, File tarball, String chartName,
+            String chartVersion, HelmRepository repository) {
+        CompletableFuture<Boolean> lookup;
+        if (repository.type.get() == HelmRepositoryType.CHARTMUSEUM) {
+            HttpRequest request = newRequest(repository, HelmChartUploader.deductIndexURL(repository)).GET().build();
+            lookup = client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                    .thenApply(response -> {
+                        if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+                            return false;
+                        }
+
+                        try (InputStream is = new ByteArrayInputStream(response.body())) {
+                            String digest = HelmChartUploader.findDigestInIndex(chartName, chartVersion, is);
+                            return digest != null
+                                    && digest.equalsIgnoreCase(DigestUtils.sha256(tarball.toPath()));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } else {
+            HttpRequest request = newRequest(repository, HelmChartUploader.deductChartURL(tarball, repository))
+                    .method(HEAD, HttpRequest.BodyPublishers.noBody())
+                    .build();
+            lookup = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenApply(response -> {
+                        if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+                            return false;
+                        }
+
+                        try {
+                            return HelmChartUploader.hasSameChecksum(tarball,
+                                    response.headers().firstValueAsLong("Content-Length").orElse(-1),
+                                    name -> response.headers().firstValue(name).orElse(null));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        }
+
+        return lookup.exceptionally(e -> {
+            LOGGER.debugf("Could not check whether the Helm chart is already in the repository. Caused by: %s",
+                    e.getMessage());
+            return false;
+        });
+    }
+
+    private static HttpRequest.Builder newRequest(HelmRepository repository, String url) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).timeout(repository.readTimeout);
+        String authorization = HelmChartUploader.deductAuthorization(repository);
+        if (authorization != null) {
+            builder.header(AUTHORIZATION, authorization);
+        }
+
+        return builder;
+    }
+
+    /**
+     * @return the client of the repository, which is created by the first push to the repository during the build.
+     */
+    static HttpClient getClient(HelmRepository repository) {
+        return CLIENTS.computeIfAbsent(repository.url.get(), url -> newClient(repository));
+    }
+
+    /**
+     * Removes the clients at the end of the build, so their connections are released and nothing is kept from one build
+     * to the next.
+     */
+    static void clearClients() {
+        CLIENTS.clear();
+    }
+
+    /**
+     * HTTP/2 is only requested over TLS, where it's negotiated during the handshake. Over plain HTTP, the client would add
+     * the headers of an upgrade to the first request, which some servers and proxies reject.
+     */
+    static HttpClient newClient(HelmRepository repository) {
+        boolean secure = HTTPS.equalsIgnoreCase(URI.create(repository.url.get()).getScheme());
+        return HttpClient.newBuilder()
+                .version(secure ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(repository.connectTimeout)
+                .build();
+    }
+}
@@ -17,37 +17,50 @@
 package io.quarkiverse.helm.deployment;
 
 import static io.dekorate.helm.util.HelmTarArchiver.createTarBall;
-import static io.quarkiverse.helm.deployment.utils.HelmConfigUtils.deductProperty;
 import static io.quarkiverse.helm.deployment.utils.MapUtils.toMultiValueSortedMap;
 import static io.quarkiverse.helm.deployment.utils.MapUtils.toMultiValueUnsortedMap;
-import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.END_EXPRESSION_TOKEN;
-import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.SEPARATOR_QUOTES;
-import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.SEPARATOR_TOKEN;
-import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.START_EXPRESSION_TOKEN;
 import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.readAndSet;
 import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.set;
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileWriter;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.regex.Pattern;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import io.dekorate.ConfigReference;
 import io.dekorate.Logger;
@@ -55,7 +68,6 @@ import io.dekorate.LoggerFactory;
 import io.dekorate.Session;
 import io.dekorate.helm.config.AddIfStatement;
 import io.dekorate.helm.config.Annotation;
-import io.dekorate.helm.config.HelmChartConfig;
 import io.dekorate.helm.config.HelmExpression;
 import io.dekorate.helm.listener.HelmWriterSessionListener;
 import io.dekorate.helm.model.Chart;
@@ -63,16 +75,30 @@ import io.dekorate.helm.model.HelmDependency;
 import io.dekorate.helm.model.Maintainer;
 import io.dekorate.project.Project;
 import io.dekorate.utils.Exec;
-import io.dekorate.utils.Maps;
 import io.dekorate.utils.Serialization;
 import io.dekorate.utils.Strings;
 import io.github.yamlpath.YamlExpressionParser;
-import io.github.yamlpath.YamlPath;
+import io.quarkiverse.helm.deployment.utils.CompiledYamlPath;
+import io.quarkiverse.helm.deployment.utils.DigestUtils;
+import io.quarkiverse.helm.deployment.utils.FileCopyUtils;
+import io.quarkiverse.helm.deployment.utils.HelmBuildReport;
+import io.quarkiverse.helm.deployment.utils.HelmBuildReport.Phase;
+import io.quarkiverse.helm.deployment.utils.ManifestSource;
+import io.quarkiverse.helm.deployment.utils.MapUtils;
+import io.quarkiverse.helm.deployment.utils.PropertyDeductionContext;
+import io.quarkiverse.helm.deployment.utils.TarballWriter;
 import io.quarkiverse.helm.deployment.utils.ValuesHolder;
+import io.quarkiverse.helm.deployment.utils.YamlExpressionTokenWriter;
 
+/**
+ * Writes the Helm charts. The only state kept between invocations is the content of the files provided by the user (for
+ * example, the `values.yaml` file of the input directory), which is parsed once, shared by all the deployment targets and
+ * never modified, so the same instance can be used to generate the charts of several deployment targets concurrently.
+ */
 public class QuarkusHelmWriterSessionListener {
     private static final String YAML = ".yaml";
     private static final String YAML_REG_EXP = ".*?\\.ya?ml$";
+    private static final String FILTER_REG_EXP = "\\([^)]*\\)";
     private static final String CHART_FILENAME = "Chart" + YAML;
     private static final String VALUES = "values";
     private static final String TEMPLATES = "templates";
@@ -88,14 +114,44 @@ public class QuarkusHelmWriterSessionListener {
     private static final String VALUES_START_TAG = START_TAG + " .Values.";
     private static final String VALUES_END_TAG = " " + END_TAG;
     private static final String EMPTY = "";
+    private static final String TAR = "tar";
+    private static final String TAR_GZ = "tar.gz";
+    private static final String TGZ = "tgz";
+    private static final String SHA256_EXTENSION = ".sha256";
+    private static final String SOURCE_DATE_EPOCH = "SOURCE_DATE_EPOCH";
     private static final String ENVIRONMENT_PROPERTY_GROUP = "envs.";
     private static final String IF_STATEMENT_START_TAG = "{{- if .Values.%s }}";
     private static final String TEMPLATE_FUNCTION_START_TAG = "{{- define";
     private static final String TEMPLATE_FUNCTION_END_TAG = "{{- end }}";
     private static final String HELM_HELPER_PREFIX = "_";
-    private static final boolean APPEND = true;
+    private static final ObjectWriter TEMPLATE_WRITER = Serialization.yamlMapper().writer()
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     private static final Logger LOGGER = LoggerFactory.getLogger();
 
+    private final boolean deltaProfileValues;
+    private final boolean hardLinkAdditionalFiles;
+    private final int compressionLevel;
+    private final int compressionThreads;
+    private final boolean reproducibleTarball;
+    // The files provided by the user, parsed only once for all the deployment targets
+    private final Map<Path, Map<String, Object>> userFiles = new ConcurrentHashMap<>();
+
+    public QuarkusHelmWriterSessionListener() {
+        this.deltaProfileValues = false;
+        this.hardLinkAdditionalFiles = false;
+        this.compressionLevel = Deflater.DEFAULT_COMPRESSION;
+        this.compressionThreads = 1;
+        this.reproducibleTarball = false;
+    }
+
+    public QuarkusHelmWriterSessionListener(HelmChartConfig config) {
+        this.deltaProfileValues = config.deltaProfileValues;
+        this.hardLinkAdditionalFiles = config.hardLinkAdditionalFiles;
+        this.compressionLevel = config.compressionLevel;
+        this.compressionThreads = config.compressionThreads;
+        this.reproducibleTarball = config.reproducibleTarball;
+    }
+
     /**
      * Needs to be public in order to be called from outside the session context.
      *
@@ -107,31 +163,73 @@ public class QuarkusHelmWriterSessionListener {
             Path inputDir,
             Path outputDir,
             Collection<File> generatedFiles) {
+        return writeHelmFiles(session, project, helmConfig, configReferences, inputDir, outputDir,
+                generatedFiles.stream().map(ManifestSource::fromFile).collect(Collectors.toList()),
+                new HelmBuildReport(outputDir.getFileName().toString()));
+    }
+
+    /**
+     * Needs to be public in order to be called from outside the session context.
+     *
+     * @return the list of the Helm generated files.
+     */
+    public Map<String, String> writeHelmFiles(Session session, Project project,
+            io.dekorate.helm.config.HelmChartConfig helmConfig,
+            List<ConfigReference> configReferences,
+            Path inputDir,
+            Path outputDir,
+            List<ManifestSource> manifests,
+            HelmBuildReport report) {
         Map<String, String> artifacts = new HashMap<>();
+        report.setChartName(helmConfig.getName());
         if (helmConfig.isEnabled()) {
             validateHelmConfig(helmConfig);
-            List<ConfigReference> valuesReferences = mergeValuesReferencesFromDecorators(configReferences,
-                    helmConfig.getAddIfStatements(), session);
-
-            try {
+            List<ConfigReference> valuesReferences = removeRedundantValuesReferences(
+                    mergeValuesReferencesFromDecorators(configReferences, helmConfig.getAddIfStatements(), session),
+                    report);
+
+            PropertyDeductionContext properties = new PropertyDeductionContext(helmConfig);
+            File tarballFile = helmConfig.isCreateTarFile() ? getTarballFile(helmConfig, project, outputDir) : null;
+            // the tar and tar.gz tarballs are written while the chart is generated, so the generated files are added as
+            // they are written and never read again
+            try (TarballWriter tarball = tarballFile != null && isTarOrGzip(helmConfig.getExtension())
+                    ? openTarball(tarballFile, helmConfig.getExtension())
+                    : null) {
                 LOGGER.info(String.format("Creating Helm Chart \"%s\"", helmConfig.getName()));
-                ValuesHolder values = populateValues(helmConfig, valuesReferences);
-                artifacts.putAll(processTemplates(helmConfig, helmConfig.getAddIfStatements(), inputDir, outputDir,
-                        generatedFiles, valuesReferences, values));
-                artifacts.putAll(createChartYaml(helmConfig, project, inputDir, outputDir));
-                artifacts.putAll(createValuesYaml(helmConfig, inputDir, outputDir, values));
+                long start = System.nanoTime();
+                ValuesHolder values = populateValues(helmConfig, properties, valuesReferences);
+                report.addDuration(Phase.VALUES_POPULATION, start);
+                artifacts.putAll(processTemplates(helmConfig, properties, helmConfig.getAddIfStatements(), inputDir,
+                        outputDir, manifests, valuesReferences, values, tarball, report));
+                start = System.nanoTime();
+                artifacts.putAll(createChartYaml(helmConfig, project, inputDir, outputDir, tarball));
+                artifacts.putAll(createValuesYaml(helmConfig, inputDir, outputDir, values, tarball));
+                report.addDuration(Phase.VALUES_AND_CHART_WRITING, start);
 
                 // To follow Helm file structure standards:
                 artifacts.putAll(createEmptyChartFolder(helmConfig, outputDir));
-                artifacts.putAll(addNotesIntoTemplatesFolder(helmConfig, inputDir, outputDir));
+                artifacts.putAll(addNotesIntoTemplatesFolder(helmConfig, inputDir, outputDir, tarball));
                 artifacts.putAll(addAdditionalResources(helmConfig, inputDir, outputDir));
 
                 // Final step: packaging
-                if (helmConfig.isCreateTarFile()) {
+                if (tarballFile != null) {
+                    start = System.nanoTime();
                     fetchDependencies(helmConfig, outputDir);
-                    artifacts.putAll(createTarball(helmConfig, project, outputDir, artifacts));
+                    report.addDuration(Phase.DEPENDENCY_FETCH, start);
+                    start = System.nanoTime();
+                    Map<String, String> tarballArtifacts = createTarball(helmConfig, outputDir, tarballFile, tarball,
+                            report);
+                    report.addDuration(Phase.TARBALL, start);
+                    report.setTarballBytes(Files.size(tarballFile.toPath()));
+                    artifacts.putAll(tarballArtifacts);
                 }
 
+                for (String artifact : artifacts.keySet()) {
+                    Path file = Paths.get(artifact);
+                    if (Files.isRegularFile(file)) {
+                        report.addGeneratedFile(Files.size(file));
+                    }
+                }
             } catch (IOException e) {
                 throw new RuntimeException("Error writing resources", e);
             }
@@ -140,7 +238,8 @@ public class QuarkusHelmWriterSessionListener {
         return artifacts;
     }
 
-    private Map<String, String> addAdditionalResources(HelmChartConfig helmConfig, Path inputDir, Path outputDir)
+    private Map<String, String> addAdditionalResources(io.dekorate.helm.config.HelmChartConfig helmConfig, Path inputDir,
+            Path outputDir)
             throws IOException {
         if (inputDir == null || !inputDir.toFile().exists()) {
             return Collections.emptyMap();
@@ -150,14 +249,8 @@ public class QuarkusHelmWriterSessionListener {
         for (File source : inputDir.toFile().listFiles()) {
             if (ADDITIONAL_CHART_FILES.stream().anyMatch(source.getName()::equalsIgnoreCase)) {
                 Path destination = getChartOutputDir(helmConfig, outputDir).resolve(source.getName());
-                if (source.isDirectory()) {
-                    Files.createDirectory(destination);
-                    for (File file : source.listFiles()) {
-                        Files.copy(new FileInputStream(file), destination.resolve(file.getName()));
-                    }
-                } else {
-                    Files.copy(new FileInputStream(source), destination);
-                }
+                // the additional files are never written once they are in the chart, so they can be hard linked
+                FileCopyUtils.copy(source.toPath(), destination, hardLinkAdditionalFiles);
 
                 artifacts.put(destination.toString(), EMPTY);
             }
@@ -189,7 +282,7 @@ public class QuarkusHelmWriterSessionListener {
     }
 
     private Map<String, String> addNotesIntoTemplatesFolder(io.dekorate.helm.config.HelmChartConfig helmConfig, Path inputDir,
-            Path outputDir)
+            Path outputDir, TarballWriter tarball)
             throws IOException {
         InputStream notesInputStream;
 
@@ -208,7 +301,10 @@ public class QuarkusHelmWriterSessionListener {
             throw new RuntimeException("Could not find the notes template file in the classpath at " + helmConfig.getNotes());
         }
         Path chartOutputDir = getChartOutputDir(helmConfig, outputDir).resolve(TEMPLATES).resolve(NOTES);
-        Files.copy(notesInputStream, chartOutputDir);
+        try (InputStream is = notesInputStream) {
+            writeBytes(is.readAllBytes(), chartOutputDir, outputDir, tarball);
+        }
+
         return Collections.singletonMap(chartOutputDir.toString(), EMPTY);
     }
 
@@ -256,22 +352,84 @@ public class QuarkusHelmWriterSessionListener {
         return configReferences;
     }
 
+    /**
+     * Removes the references that are equal to a previous one: same property, paths, profile, expression and value, when no
+     * reference between them has the same property or a path to a field with the same name. Processing such a reference
+     * again only rewrites the same expressions into the same paths of every manifest. Otherwise, it would overwrite what the
+     * references in between wrote, so it's kept.
+     */
+    private List<ConfigReference> removeRedundantValuesReferences(List<ConfigReference> valuesReferences,
+            HelmBuildReport report) {
+        // the index of the last kept reference by key, by property and by field
+        Map<List<Object>, Integer> keys = new HashMap<>();
+        Map<String, Integer> properties = new HashMap<>();
+        Map<String, Integer> fields = new HashMap<>();
+        List<ConfigReference> uniqueValuesReferences = new ArrayList<>(valuesReferences.size());
+        int redundantPaths = 0;
+        for (ConfigReference valueReference : valuesReferences) {
+            List<Object> key = Arrays.asList(valueReference.getProperty(),
+                    valueReference.getPaths() == null ? null : Arrays.asList(valueReference.getPaths()),
+                    valueReference.getProfile(),
+                    valueReference.getExpression(),
+                    valueReference.getValue());
+            List<String> referenceFields = valueHasPath(valueReference)
+                    ? Arrays.stream(valueReference.getPaths()).map(QuarkusHelmWriterSessionListener::getField)
+                            .collect(Collectors.toList())
+                    : Collections.emptyList();
+            Integer previous = keys.get(key);
+            if (previous != null && previous.equals(properties.get(valueReference.getProperty()))
+                    && referenceFields.stream().allMatch(field -> previous.equals(fields.get(field)))) {
+                redundantPaths += referenceFields.size();
+                continue;
+            }
+
+            int index = uniqueValuesReferences.size();
+            uniqueValuesReferences.add(valueReference);
+            keys.put(key, index);
+            properties.put(valueReference.getProperty(), index);
+            referenceFields.forEach(field -> fields.put(field, index));
+        }
+
+        int redundantReferences = valuesReferences.size() - uniqueValuesReferences.size();
+        if (redundantReferences > 0) {
+            LOGGER.debug(String.format("Removed %d redundant value references", redundantReferences));
+        }
+
+        report.setRedundantValueReferences(redundantReferences, redundantPaths);
+        return uniqueValuesReferences;
+    }
+
+    /**
+     * @return the name of the field that the path ends with, without the filters, which is the same for all the paths
+     *         to the same field.
+     */
+    private static String getField(String path) {
+        if (path == null) {
+            return null;
+        }
+
+        String field = path.replaceAll(FILTER_REG_EXP, EMPTY);
+        return field.substring(field.lastIndexOf('.') + 1);
+    }
+
     private boolean valueHasPath(ConfigReference valueReference) {
         return valueReference.getPaths() != null && valueReference.getPaths().length > 0;
     }
 
     private Map<String, String> createValuesYaml(io.dekorate.helm.config.HelmChartConfig helmConfig,
-            Path inputDir, Path outputDir, ValuesHolder valuesHolder)
+            Path inputDir, Path outputDir, ValuesHolder valuesHolder, TarballWriter tarball)
             throws IOException {
         Map<String, Object> prodValues = valuesHolder.getProdValues();
         Map<String, Map<String, Object>> valuesByProfile = valuesHolder.getValuesByProfile();
+        Map<String, Object> userValues = readUserFile(inputDir.resolve(VALUES + YAML));
+        Map<String, Object> prodValuesAsMultiValueMap = mergeWithUserFile(userValues, toMultiValueSortedMap(prodValues));
 
         Map<String, String> artifacts = new HashMap<>();
 
         // first, we process the values in each profile
         for (Map.Entry<String, Map<String, Object>> valuesInProfile : valuesByProfile.entrySet()) {
             String profile = valuesInProfile.getKey();
-            Map<String, Object> values = valuesInProfile.getValue();
+            Map<String, Object> values = new LinkedHashMap<>(valuesInProfile.getValue());
             // Populate the profiled values with the one from prod if the key does not exist
             for (Map.Entry<String, Object> prodValue : prodValues.entrySet()) {
                 if (!values.containsKey(prodValue.getKey())) {
@@ -279,65 +437,221 @@ public class QuarkusHelmWriterSessionListener {
                 }
             }
 
+            Map<String, Object> valuesAsMultiValueMap = mergeWithUserFile(userValues, toMultiValueSortedMap(values));
+            if (deltaProfileValues) {
+                // Helm layers the profile values on top of the values.yaml file, so only the differences are needed
+                valuesAsMultiValueMap = difference(valuesAsMultiValueMap, prodValuesAsMultiValueMap);
+            }
+
             // Create the values.<profile>.yaml file
-            artifacts.putAll(writeFileAsYaml(mergeWithFileIfExists(inputDir, VALUES + YAML, toMultiValueSortedMap(values)),
-                    getChartOutputDir(helmConfig, outputDir).resolve(VALUES + "." + profile + YAML)));
+            artifacts.putAll(writeFileAsYaml(valuesAsMultiValueMap,
+                    getChartOutputDir(helmConfig, outputDir).resolve(VALUES + "." + profile + YAML), outputDir, tarball));
         }
 
         // Next, we process the prod profile
-        artifacts.putAll(writeFileAsYaml(mergeWithFileIfExists(inputDir, VALUES + YAML, toMultiValueSortedMap(prodValues)),
-                getChartOutputDir(helmConfig, outputDir).resolve(VALUES + YAML)));
+        artifacts.putAll(writeFileAsYaml(prodValuesAsMultiValueMap,
+                getChartOutputDir(helmConfig, outputDir).resolve(VALUES + YAML), outputDir, tarball));
 
         return artifacts;
     }
 
+    /**
+     * @return the content of the file provided by the user, or null if there is no file. The file is parsed only once, so
+     *         the returned content must not be modified.
+     */
+    private Map<String, Object> readUserFile(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        return userFiles.computeIfAbsent(file, f -> Serialization.unmarshal(f.toFile(),
+                new TypeReference<Map<String, Object>>() {
+                }));
+    }
+
     private Map<String, Object> mergeWithFileIfExists(Path inputDir, String file, Map<String, Object> valuesAsMultiValueMap) {
-        File templateValuesFile = inputDir.resolve(file).toFile();
-        if (templateValuesFile.exists()) {
-            Map<String, Object> result = new HashMap<>();
-            Map<String, Object> yaml = Serialization.unmarshal(templateValuesFile,
-                    new TypeReference<Map<String, Object>>() {
-                    });
-            result.putAll(yaml);
-            // first, incorporate the properties from the file
-            Maps.merge(valuesAsMultiValueMap, result);
-            // then, merge it with the generated data
-            Maps.merge(result, valuesAsMultiValueMap);
-            return result;
+        return mergeWithUserFile(readUserFile(inputDir.resolve(file)), valuesAsMultiValueMap);
+    }
+
+    /**
+     * Merges the generated values into a copy of the content of the user file. The values of the user file have precedence.
+     */
+    private Map<String, Object> mergeWithUserFile(Map<String, Object> userFile, Map<String, Object> valuesAsMultiValueMap) {
+        if (userFile == null) {
+            return valuesAsMultiValueMap;
         }
 
-        return valuesAsMultiValueMap;
+        Map<String, Object> result = new HashMap<>(asValues(MapUtils.copyOf(userFile)));
+        mergeIfAbsent(result, valuesAsMultiValueMap);
+        return result;
     }
 
-    private Map<String, String> createTarball(io.dekorate.helm.config.HelmChartConfig helmConfig, Project project,
-            Path outputDir,
-            Map<String, String> artifacts) throws IOException {
+    /**
+     * Adds the source entries whose keys are not in the target. A key that is in the target with a null value is present,
+     * so it keeps its null value.
+     */
+    static void mergeIfAbsent(Map<String, Object> target, Map<String, Object> source) {
+        for (Map.Entry<String, Object> entry : source.entrySet()) {
+            Object current = target.get(entry.getKey());
+            if (!target.containsKey(entry.getKey())) {
+                target.put(entry.getKey(), entry.getValue());
+            } else if (current instanceof Map && entry.getValue() instanceof Map) {
+                mergeIfAbsent(asValues(current), asValues(entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * @return the values that are not in the base values or that have a different value.
+     */
+    private static Map<String, Object> difference(Map<String, Object> values, Map<String, Object> base) {
+        Map<String, Object> difference = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            Object baseValue = base.get(entry.getKey());
+            if (entry.getValue() instanceof Map && baseValue instanceof Map) {
+                Map<String, Object> nested = difference(asValues(entry.getValue()), asValues(baseValue));
+                if (!nested.isEmpty()) {
+                    difference.put(entry.getKey(), nested);
+                }
+            } else if (!Objects.equals(entry.getValue(), baseValue) || !base.containsKey(entry.getKey())) {
+                difference.put(entry.getKey(), entry.getValue());
+            }
+        }
 
-        File tarballFile = outputDir.resolve(String.format("%s-%s%s.%s",
+        return difference;
+    }
+
+    /**
+     * @return the map as values. The maps of the values files are read with string keys, and the maps built by
+     *         {@link MapUtils} have string keys too.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asValues(Object map) {
+        return (Map<String, Object>) map;
+    }
+
+    private File getTarballFile(io.dekorate.helm.config.HelmChartConfig helmConfig, Project project, Path outputDir) {
+        return outputDir.resolve(String.format("%s-%s%s.%s",
                 helmConfig.getName(),
                 getVersion(helmConfig, project),
                 Strings.isNullOrEmpty(helmConfig.getTarFileClassifier()) ? EMPTY : "-" + helmConfig.getTarFileClassifier(),
                 helmConfig.getExtension()))
                 .toFile();
+    }
 
+    private TarballWriter openTarball(File tarballFile, String extension) throws IOException {
         LOGGER.debug(String.format("Creating Helm configuration Tarball: '%s'", tarballFile));
+        Files.createDirectories(tarballFile.toPath().getParent());
+        return new TarballWriter(tarballFile.toPath(), isGzip(extension), compressionLevel, compressionThreads,
+                getModificationTime());
+    }
+
+    /**
+     * Completes the tarball: the files that were not generated (the additional files of the input directory and the
+     * fetched dependencies) are streamed from the chart folder, after the generated files. Other extensions than tar and
+     * tar.gz are only supported by the Dekorate archiver, which archives the whole chart folder.
+     */
+    private Map<String, String> createTarball(io.dekorate.helm.config.HelmChartConfig helmConfig, Path outputDir,
+            File tarballFile, TarballWriter tarball, HelmBuildReport report) throws IOException {
 
         Path helmSources = getChartOutputDir(helmConfig, outputDir);
+        Map<String, Path> filesByEntryName = new TreeMap<>();
+        try (Stream<Path> walk = Files.walk(helmSources)) {
+            walk.filter(Files::isRegularFile)
+                    .forEach(file -> filesByEntryName.put(toEntryName(outputDir.relativize(file)), file));
+        }
 
-        List<File> files = new ArrayList<>();
-        for (String filePath : artifacts.keySet()) {
-            File file = new File(filePath);
-            if (file.isDirectory()) {
-                files.addAll(Arrays.asList(file.listFiles()));
-            } else {
-                files.add(file);
+        String sha256;
+        if (tarball == null) {
+            LOGGER.debug(String.format("Creating Helm configuration Tarball: '%s'", tarballFile));
+            long modificationTime = getModificationTime();
+            createTarBall(tarballFile, helmSources.toFile(),
+                    filesByEntryName.values().stream().map(Path::toFile).collect(Collectors.toList()),
+                    helmConfig.getExtension(),
+                    tae -> {
+                        tae.setName(String.format("%s/%s", helmConfig.getName(), tae.getName()));
+                        if (reproducibleTarball) {
+                            tae.setModTime(modificationTime);
+                            tae.setLastAccessTime(null);
+                            tae.setStatusChangeTime(null);
+                            tae.setCreationTime(null);
+                            tae.setIds(0, 0);
+                            tae.setNames(EMPTY, EMPTY);
+                            tae.setMode(TarballWriter.FILE_MODE);
+                        }
+                    });
+            sha256 = DigestUtils.sha256(tarballFile.toPath());
+        } else {
+            for (Map.Entry<String, Path> file : filesByEntryName.entrySet()) {
+                if (!tarball.hasFile(file.getKey())) {
+                    tarball.addFile(file.getKey(), file.getValue());
+                }
             }
+
+            tarball.finish();
+            sha256 = tarball.getSha256();
         }
 
-        createTarBall(tarballFile, helmSources.toFile(), files, helmConfig.getExtension(),
-                tae -> tae.setName(String.format("%s/%s", helmConfig.getName(), tae.getName())));
+        report.setTarballSha256(sha256);
+        Map<String, String> artifacts = new HashMap<>();
+        artifacts.put(tarballFile.toString(), null);
+        if (reproducibleTarball) {
+            // same format as the sha256sum tool, so it can be checked with `sha256sum -c`
+            Path sidecar = outputDir.resolve(tarballFile.getName() + SHA256_EXTENSION);
+            byte[] content = (sha256 + "  " + tarballFile.getName() + "\n").getBytes(StandardCharsets.UTF_8);
+            Files.write(sidecar, content);
+            artifacts.put(sidecar.toString(), DigestUtils.sha256(content));
+        }
 
-        return Collections.singletonMap(tarballFile.toString(), null);
+        return artifacts;
+    }
+
+    /**
+     * @return the modification time of the tarball entries: in the reproducible mode, the entries only depend on their
+     *         names and contents.
+     */
+    private long getModificationTime() {
+        return reproducibleTarball ? getSourceDateEpoch() : System.currentTimeMillis();
+    }
+
+    /**
+     * @return the time of the entries of the reproducible tarballs: the `SOURCE_DATE_EPOCH` environment variable, which is
+     *         the standard of the reproducible builds, or the epoch.
+     */
+    private static long getSourceDateEpoch() {
+        String sourceDateEpoch = System.getenv(SOURCE_DATE_EPOCH);
+        if (Strings.isNullOrEmpty(sourceDateEpoch)) {
+            return 0;
+        }
+
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(sourceDateEpoch.trim()));
+        } catch (NumberFormatException e) {
+            LOGGER.warning(String.format("Ignoring the invalid %s environment variable: '%s'", SOURCE_DATE_EPOCH,
+                    sourceDateEpoch));
+            return 0;
+        }
+    }
+
+    private static boolean isTarOrGzip(String extension) {
+        return TAR.equalsIgnoreCase(extension) || isGzip(extension);
+    }
+
+    private static boolean isGzip(String extension) {
+        return TAR_GZ.equalsIgnoreCase(extension) || TGZ.equalsIgnoreCase(extension);
+    }
+
+    private static String toEntryName(Path relative) {
+        StringBuilder name = new StringBuilder();
+        for (Path segment : relative) {
+            if (name.length() > 0) {
+                name.append('/');
+            }
+
+            name.append(segment);
+        }
+
+        return name.toString();
     }
 
     private String getVersion(io.dekorate.helm.config.HelmChartConfig helmConfig, Project project) {
@@ -349,72 +663,166 @@ public class QuarkusHelmWriterSessionListener {
     }
 
     private Map<String, String> processTemplates(io.dekorate.helm.config.HelmChartConfig helmConfig,
+            PropertyDeductionContext properties,
             AddIfStatement[] addIfStatements,
             Path inputDir,
             Path outputDir,
-            Collection<File> generatedFiles, List<ConfigReference> valuesReferences,
-            ValuesHolder values) throws IOException {
+            List<ManifestSource> manifests, List<ConfigReference> valuesReferences,
+            ValuesHolder values, TarballWriter tarball, HelmBuildReport report) throws IOException {
 
         Map<String, String> templates = new HashMap<>();
+        Map<Path, MessageDigest> digestsByTemplate = new LinkedHashMap<>();
+        Map<Path, Writer> writersByTemplate = new HashMap<>();
+        // The content of the templates for the tarball, which is written while the templates are. The templates of a kind
+        // are written resource by resource, so they are only added to the tarball once all of them are complete.
+        Map<Path, ByteArrayOutputStream> contentsByTemplate = tarball == null ? null : new TreeMap<>();
         Path templatesDir = getChartOutputDir(helmConfig, outputDir).resolve(TEMPLATES);
         Files.createDirectories(templatesDir);
-        List<Map<Object, Object>> resources = replaceValuesInYamls(helmConfig, generatedFiles, valuesReferences, values);
-        Map<String, String> functionsByResource = processUserDefinedTemplates(inputDir, templates, templatesDir);
-        // Split yamls in separated files by kind
-        for (Map<Object, Object> resource : resources) {
-            // Add user defined expressions
-            if (helmConfig.getExpressions() != null) {
-                YamlExpressionParser parser = new YamlExpressionParser(Arrays.asList(resource));
-                for (HelmExpression expressionConfig : helmConfig.getExpressions()) {
-                    if (expressionConfig.getPath() != null && expressionConfig.getExpression() != null) {
-                        readAndSet(parser, expressionConfig.getPath(), expressionConfig.getExpression());
-                    }
+        Map<String, String> functionsByResource = processUserDefinedTemplates(inputDir, templates, templatesDir,
+                contentsByTemplate);
+        try {
+            for (ManifestSource manifest : manifests) {
+                if (!manifest.getName().toLowerCase().matches(YAML_REG_EXP)) {
+                    continue;
+                }
+
+                // The values are resolved using all the resources of the same file, so only these resources are kept in
+                // memory until they are written.
+                YamlExpressionParser parser = replaceValuesInYaml(properties, manifest, valuesReferences, values, report);
+                report.addResources(parser.getResources().size());
+                // Split yamls in separated files by kind
+                for (Map<Object, Object> resource : parser.getResources()) {
+                    writeTemplate(helmConfig, properties, addIfStatements, templatesDir, functionsByResource,
+                            digestsByTemplate, writersByTemplate, contentsByTemplate, resource, report);
                 }
             }
+        } finally {
+            closeAll(writersByTemplate.values());
+        }
 
-            String kind = (String) resource.get(KIND);
-            Path targetFile = templatesDir.resolve(kind.toLowerCase() + YAML);
-            String functions = functionsByResource.get(kind.toLowerCase() + YAML);
+        for (Map.Entry<Path, MessageDigest> digestByTemplate : digestsByTemplate.entrySet()) {
+            templates.put(digestByTemplate.getKey().toString(), DigestUtils.toHex(digestByTemplate.getValue().digest()));
+            report.addTemplateBytes(Files.size(digestByTemplate.getKey()));
+        }
 
-            // Adapt the values tag to Helm standards:
-            String adaptedString = Serialization.yamlMapper().writeValueAsString(resource);
-            if (functions != null) {
-                adaptedString = functions + System.lineSeparator() + adaptedString;
+        if (tarball != null) {
+            for (Map.Entry<Path, ByteArrayOutputStream> contentByTemplate : contentsByTemplate.entrySet()) {
+                tarball.addFile(toEntryName(outputDir.relativize(contentByTemplate.getKey())), contentByTemplate.getValue());
             }
+        }
 
-            // Add if statements at resource level
-            for (AddIfStatement addIfStatement : addIfStatements) {
-                if ((addIfStatement.getOnResourceKind().isEmpty()
-                        || addIfStatement.getOnResourceKind().equals(kind))
-                        && (addIfStatement.getOnResourceName().isEmpty()
-                                || addIfStatement.getOnResourceName().equals(getNameFromResource(resource)))) {
-
-                    String property = deductProperty(helmConfig, addIfStatement.getProperty());
-
-                    adaptedString = String.format(IF_STATEMENT_START_TAG, property)
-                            + System.lineSeparator()
-                            + adaptedString
-                            + System.lineSeparator()
-                            + TEMPLATE_FUNCTION_END_TAG
-                            + System.lineSeparator();
+        return templates;
+    }
+
+    private void writeTemplate(io.dekorate.helm.config.HelmChartConfig helmConfig,
+            PropertyDeductionContext properties,
+            AddIfStatement[] addIfStatements,
+            Path templatesDir,
+            Map<String, String> functionsByResource,
+            Map<Path, MessageDigest> digestsByTemplate,
+            Map<Path, Writer> writersByTemplate,
+            Map<Path, ByteArrayOutputStream> contentsByTemplate,
+            Map<Object, Object> resource,
+            HelmBuildReport report) throws IOException {
+        // Add user defined expressions
+        long start = System.nanoTime();
+        if (helmConfig.getExpressions() != null) {
+            YamlExpressionParser parser = null;
+            for (HelmExpression expressionConfig : helmConfig.getExpressions()) {
+                if (expressionConfig.getPath() != null && expressionConfig.getExpression() != null
+                        && CompiledYamlPath.compile(expressionConfig.getPath()).mayMatch(resource)) {
+                    if (parser == null) {
+                        parser = new YamlExpressionParser(Arrays.asList(resource));
+                    }
+
+                    readAndSet(parser, expressionConfig.getPath(), expressionConfig.getExpression());
                 }
             }
+        }
+
+        report.addDuration(Phase.EXPRESSIONS, start);
+        start = System.nanoTime();
 
-            adaptedString = adaptedString
-                    .replaceAll(Pattern.quote("\"" + START_TAG), START_TAG)
-                    .replaceAll(Pattern.quote(END_TAG + "\""), END_TAG)
-                    .replaceAll("\"" + START_EXPRESSION_TOKEN, EMPTY)
-                    .replaceAll(END_EXPRESSION_TOKEN + "\"", EMPTY)
-                    .replaceAll(SEPARATOR_QUOTES, "\"")
-                    .replaceAll(SEPARATOR_TOKEN, System.lineSeparator())
-                    // replace randomly escape characters that is entered by Jackson readTree method:
-                    .replaceAll("\\\\\\n(\\s)*\\\\", EMPTY);
+        String kind = (String) resource.get(KIND);
+        Path targetFile = templatesDir.resolve(kind.toLowerCase() + YAML);
+        String functions = functionsByResource.get(kind.toLowerCase() + YAML);
 
-            writeFile(adaptedString, targetFile);
-            templates.put(targetFile.toString(), adaptedString);
+        // Add if statements at resource level
+        List<String> ifStatementProperties = new ArrayList<>();
+        for (AddIfStatement addIfStatement : addIfStatements) {
+            if ((addIfStatement.getOnResourceKind().isEmpty()
+                    || addIfStatement.getOnResourceKind().equals(kind))
+                    && (addIfStatement.getOnResourceName().isEmpty()
+                            || addIfStatement.getOnResourceName().equals(getNameFromResource(resource)))) {
+                ifStatementProperties.add(properties.deductProperty(addIfStatement.getProperty()));
+            }
         }
 
-        return templates;
+        // Adapt the values tag to Helm standards while writing the resource. All the resources of the same kind are streamed
+        // into the same writer, which updates the digest of the template.
+        Writer writer = writersByTemplate.get(targetFile);
+        if (writer == null) {
+            writer = openTemplate(targetFile, digestsByTemplate.computeIfAbsent(targetFile, file -> DigestUtils.newSha256()),
+                    contentsByTemplate == null ? null
+                            : contentsByTemplate.computeIfAbsent(targetFile, file -> new ByteArrayOutputStream()));
+            writersByTemplate.put(targetFile, writer);
+        }
+
+        // the latest if statement wraps all the previous ones
+        for (int index = ifStatementProperties.size() - 1; index >= 0; index--) {
+            writer.write(String.format(IF_STATEMENT_START_TAG, ifStatementProperties.get(index)));
+            writer.write(System.lineSeparator());
+        }
+
+        if (functions != null) {
+            writer.write(functions);
+            writer.write(System.lineSeparator());
+        }
+
+        TEMPLATE_WRITER.writeValue(writer, resource);
+
+        for (int index = 0; index < ifStatementProperties.size(); index++) {
+            writer.write(System.lineSeparator());
+            writer.write(TEMPLATE_FUNCTION_END_TAG);
+            writer.write(System.lineSeparator());
+        }
+
+        report.addDuration(Phase.TEMPLATE_POST_PROCESSING, start);
+    }
+
+    /**
+     * Opens the template in append mode, after the content of the user template if any. The resources end with a new line,
+     * so no token spans two resources and the same writer can be used for all of them.
+     *
+     * @param content where to copy the content of the template for the tarball, or null if there is no tarball.
+     */
+    private static Writer openTemplate(Path targetFile, MessageDigest digest, ByteArrayOutputStream content)
+            throws IOException {
+        OutputStream os = Files.newOutputStream(targetFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (content != null) {
+            os = new TeeOutputStream(os, content);
+        }
+
+        return new YamlExpressionTokenWriter(new BufferedWriter(new OutputStreamWriter(new DigestOutputStream(os, digest))));
+    }
+
+    private static void closeAll(Collection<Writer> writers) throws IOException {
+        IOException failure = null;
+        for (Writer writer : writers) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
     }
 
     private String getNameFromResource(Map<Object, Object> resource) {
@@ -429,8 +837,8 @@ public class QuarkusHelmWriterSessionListener {
         return null;
     }
 
-    private Map<String, String> processUserDefinedTemplates(Path inputDir, Map<String, String> templates, Path templatesDir)
-            throws IOException {
+    private Map<String, String> processUserDefinedTemplates(Path inputDir, Map<String, String> templates, Path templatesDir,
+            Map<Path, ByteArrayOutputStream> contentsByTemplate) throws IOException {
         Map<String, String> functionsByResource = new HashMap<>();
 
         File inputTemplates = inputDir.resolve(TEMPLATES).toFile();
@@ -440,8 +848,12 @@ public class QuarkusHelmWriterSessionListener {
                 if (userTemplateFile.getName().startsWith(HELM_HELPER_PREFIX)) {
                     // it's a helper Helm file, include as it is
                     Path output = templatesDir.resolve(userTemplateFile.getName());
-                    Files.copy(new FileInputStream(userTemplateFile), output);
-                    templates.put(output.toString(), EMPTY);
+                    byte[] content = Files.readAllBytes(userTemplateFile.toPath());
+                    writeBytes(content, output);
+                    templates.put(output.toString(), DigestUtils.sha256(content));
+                    if (contentsByTemplate != null) {
+                        contentsByTemplate.computeIfAbsent(output, file -> new ByteArrayOutputStream()).writeBytes(content);
+                    }
                 } else {
                     // it's a resource template, let's extract only the template functions and include
                     // it into the generated file later.
@@ -464,6 +876,7 @@ public class QuarkusHelmWriterSessionListener {
     }
 
     private ValuesHolder populateValues(io.dekorate.helm.config.HelmChartConfig helmConfig,
+            PropertyDeductionContext properties,
             List<ConfigReference> valuesReferences) {
         ValuesHolder values = new ValuesHolder();
 
@@ -475,72 +888,69 @@ public class QuarkusHelmWriterSessionListener {
                             + "either a path or a default value. ");
                 }
 
-                values.put(deductProperty(helmConfig, value.getProperty()), value);
+                values.put(properties.deductProperty(value.getProperty()), value);
             }
         }
 
         // Populate expressions from conditions
         for (io.dekorate.helm.config.HelmDependency dependency : helmConfig.getDependencies()) {
             if (Strings.isNotNullOrEmpty(dependency.getCondition())) {
-                values.put(deductProperty(helmConfig, dependency.getCondition()), true);
+                values.put(properties.deductProperty(dependency.getCondition()), true);
             }
         }
 
         return values;
     }
 
-    private List<Map<Object, Object>> replaceValuesInYamls(io.dekorate.helm.config.HelmChartConfig helmConfig,
-            Collection<File> generatedFiles,
+    private YamlExpressionParser replaceValuesInYaml(PropertyDeductionContext properties,
+            ManifestSource manifest,
             List<ConfigReference> valuesReferences,
-            ValuesHolder values) throws IOException {
-        List<Map<Object, Object>> allResources = new LinkedList<>();
-        for (File generatedFile : generatedFiles) {
-            if (!generatedFile.getName().toLowerCase().matches(YAML_REG_EXP)) {
-                continue;
+            ValuesHolder values,
+            HelmBuildReport report) throws IOException {
+        // Read helm expression parsers
+        long start = System.nanoTime();
+        report.addManifest(manifest.getSize());
+        YamlExpressionParser parser = manifest.parse();
+        report.addDuration(Phase.YAML_PARSING, start);
+        start = System.nanoTime();
+
+        // Seen lookup by default values.yaml file.
+        Map<String, Object> seen = new HashMap<>();
+        Map<String, YamlExpressionParser> filteredParsers = new HashMap<>();
+
+        // First, process the non-environmental properties
+        for (ConfigReference valueReference : valuesReferences) {
+            if (!valueIsEnvironmentProperty(valueReference)) {
+                String valueReferenceProperty = properties.deductProperty(valueReference.getProperty());
+
+                processValueReference(valueReferenceProperty, valueReference.getValue(), valueReference, values, parser,
+                        filteredParsers, seen);
             }
+        }
 
-            // Read helm expression parsers
-            YamlExpressionParser parser = YamlPath.from(new FileInputStream(generatedFile));
-
-            // Seen lookup by default values.yaml file.
-            Map<String, Object> seen = new HashMap<>();
-
-            // First, process the non-environmental properties
-            for (ConfigReference valueReference : valuesReferences) {
-                if (!valueIsEnvironmentProperty(valueReference)) {
-                    String valueReferenceProperty = deductProperty(helmConfig, valueReference.getProperty());
-
-                    processValueReference(valueReferenceProperty, valueReference.getValue(), valueReference, values, parser,
-                            seen);
+        // Next, process the environmental properties, so we can decide if it's a property coming from values.yaml or not.
+        for (ConfigReference valueReference : valuesReferences) {
+            if (valueIsEnvironmentProperty(valueReference)) {
+                String valueReferenceProperty = properties.deductProperty(valueReference.getProperty());
+                Object valueReferenceValue = valueReference.getValue();
+                String environmentProperty = getEnvironmentPropertyName(valueReference);
+
+                // Try to find the value from the current values
+                Map.Entry<String, Object> currentValue = values.getBySuffix(environmentProperty,
+                        valueReference.getProfile());
+                if (currentValue != null) {
+                    // found, we use this value instead of generating an additional envs.xxx=yyy property
+                    valueReferenceProperty = currentValue.getKey();
+                    valueReferenceValue = currentValue.getValue();
                 }
-            }
 
-            // Next, process the environmental properties, so we can decide if it's a property coming from values.yaml or not.
-            for (ConfigReference valueReference : valuesReferences) {
-                if (valueIsEnvironmentProperty(valueReference)) {
-                    String valueReferenceProperty = deductProperty(helmConfig, valueReference.getProperty());
-                    Object valueReferenceValue = valueReference.getValue();
-                    String environmentProperty = getEnvironmentPropertyName(valueReference);
-
-                    // Try to find the value from the current values
-                    Map<String, Object> current = values.get(valueReference.getProfile());
-                    for (Map.Entry<String, Object> currentValue : current.entrySet()) {
-                        if (currentValue.getKey().endsWith(environmentProperty)) {
-                            // found, we use this value instead of generating an additional envs.xxx=yyy property
-                            valueReferenceProperty = currentValue.getKey();
-                            valueReferenceValue = currentValue.getValue();
-                            break;
-                        }
-                    }
-
-                    processValueReference(valueReferenceProperty, valueReferenceValue, valueReference, values, parser, seen);
-                }
+                processValueReference(valueReferenceProperty, valueReferenceValue, valueReference, values, parser,
+                        filteredParsers, seen);
             }
-
-            allResources.addAll(parser.getResources());
         }
 
-        return allResources;
+        report.addDuration(Phase.VALUE_REFERENCES, start);
+        return parser;
     }
 
     private boolean valueIsEnvironmentProperty(ConfigReference valueReference) {
@@ -558,7 +968,7 @@ public class QuarkusHelmWriterSessionListener {
     }
 
     private void processValueReference(String property, Object value, ConfigReference valueReference, ValuesHolder values,
-            YamlExpressionParser parser, Map<String, Object> seen) {
+            YamlExpressionParser parser, Map<String, YamlExpressionParser> filteredParsers, Map<String, Object> seen) {
 
         String profile = valueReference.getProfile();
         String expression = Optional.ofNullable(valueReference.getExpression())
@@ -571,7 +981,7 @@ public class QuarkusHelmWriterSessionListener {
             }
 
             for (String path : valueReference.getPaths()) {
-                set(parser, path, expression);
+                set(parser, filteredParsers, path, expression);
             }
 
             return;
@@ -579,7 +989,7 @@ public class QuarkusHelmWriterSessionListener {
 
         // Check whether path exists
         for (String path : valueReference.getPaths()) {
-            Object found = readAndSet(parser, path, expression);
+            Object found = readAndSet(parser, filteredParsers, path, expression);
 
             Object actualValue = Optional.ofNullable(value).orElse(found);
             if (actualValue != null) {
@@ -590,7 +1000,7 @@ public class QuarkusHelmWriterSessionListener {
     }
 
     private Map<String, String> createChartYaml(io.dekorate.helm.config.HelmChartConfig helmConfig, Project project,
-            Path inputDir, Path outputDir)
+            Path inputDir, Path outputDir, TarballWriter tarball)
             throws IOException {
         final Chart chart = new Chart();
         chart.setName(helmConfig.getName());
@@ -632,22 +1042,61 @@ public class QuarkusHelmWriterSessionListener {
                     toMultiValueUnsortedMap(Serialization.yamlMapper().readValue(Serialization.asYaml(chart), Map.class)));
         }
 
-        return writeFileAsYaml(chartContent, yml);
+        return writeFileAsYaml(chartContent, yml, outputDir, tarball);
     }
 
-    private Map<String, String> writeFileAsYaml(Object data, Path file) throws IOException {
+    private Map<String, String> writeFileAsYaml(Object data, Path file, Path outputDir, TarballWriter tarball)
+            throws IOException {
         String value = Serialization.asYaml(data);
-        return writeFile(value, file);
+        return writeFile(value, file, outputDir, tarball);
     }
 
-    private Map<String, String> writeFile(String value, Path file) throws IOException {
-        try (FileWriter writer = new FileWriter(file.toFile(), APPEND)) {
-            writer.write(value);
-            return Collections.singletonMap(file.toString(), value);
+    private Map<String, String> writeFile(String value, Path file, Path outputDir, TarballWriter tarball)
+            throws IOException {
+        byte[] content = value.getBytes(Charset.defaultCharset());
+        writeBytes(content, file, outputDir, tarball);
+        return Collections.singletonMap(file.toString(), DigestUtils.sha256(content));
+    }
+
+    /**
+     * Writes the generated file and adds the same content to the tarball, if any.
+     */
+    private void writeBytes(byte[] content, Path file, Path outputDir, TarballWriter tarball) throws IOException {
+        writeBytes(content, file);
+        if (tarball != null) {
+            tarball.addFile(toEntryName(outputDir.relativize(file)), content);
         }
     }
 
-    private Path getChartOutputDir(HelmChartConfig helmConfig, Path outputDir) {
+    private void writeBytes(byte[] content, Path file) throws IOException {
+        Files.write(file, content, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private Path getChartOutputDir(io.dekorate.helm.config.HelmChartConfig helmConfig, Path outputDir) {
         return outputDir.resolve(helmConfig.getName());
     }
+
+    /**
+     * Writes the content into the stream and copies it into the given buffer.
+     */
+    private static final class TeeOutputStream extends FilterOutputStream {
+        private final ByteArrayOutputStream copy;
+
+        TeeOutputStream(OutputStream out, ByteArrayOutputStream copy) {
+            super(out);
+            this.copy = copy;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            copy.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            copy.write(b, off, len);
+        }
+    }
 }
@@ -0,0 +1,72 @@
+package io.quarkiverse.helm.deployment.decorators;
+
+import static io.dekorate.ConfigReference.joinProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.dekorate.ConfigReference;
+import io.dekorate.WithConfigReferences;
+import io.dekorate.kubernetes.decorator.AddEnvVarDecorator;
+import io.dekorate.kubernetes.decorator.AddSidecarDecorator;
+import io.dekorate.kubernetes.decorator.ApplicationContainerDecorator;
+import io.dekorate.kubernetes.decorator.ApplyApplicationContainerDecorator;
+import io.dekorate.kubernetes.decorator.Decorator;
+import io.dekorate.kubernetes.decorator.ResourceProvidingDecorator;
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+
+/**
+ * Adds several environment properties in a single visit of the application container. The values are overwritten by the
+ * environment properties added by the standard {@link AddEnvVarDecorator}.
+ */
+public class LowPriorityAddEnvVarsDecorator extends ApplicationContainerDecorator<ContainerBuilder>
+        implements WithConfigReferences {
+
+    private final Map<String, String> envs;
+
+    /**
+     * @param deploymentName the name of the deployment and of the container.
+     * @param envs the values by environment property name.
+     */
+    public LowPriorityAddEnvVarsDecorator(String deploymentName, Map<String, String> envs) {
+        super(deploymentName, deploymentName);
+        this.envs = Collections.unmodifiableMap(new LinkedHashMap<>(envs));
+    }
+
+    @Override
+    public void andThenVisit(ContainerBuilder container) {
+        container.removeMatchingFromEnv(env -> env.getName() != null && envs.containsKey(env.getName()));
+        envs.forEach((name, value) -> container.addNewEnv().withName(name).withValue(value).endEnv());
+    }
+
+    /**
+     * Same order as the standard AddEnvVarDecorator, so the sidecar containers exist when the application container is
+     * looked up.
+     */
+    @Override
+    public Class<? extends Decorator>[] after() {
+        return new Class[] { ResourceProvidingDecorator.class, ApplyApplicationContainerDecorator.class,
+                AddSidecarDecorator.class };
+    }
+
+    /**
+     * It must be executed before standard AddEnvVarDecorator, so these values got overwritten.
+     */
+    @Override
+    public Class<? extends Decorator>[] before() {
+        return new Class[] { AddEnvVarDecorator.class };
+    }
+
+    @Override
+    public List<ConfigReference> getConfigReferences() {
+        String containerPath = "(metadata.name == " + getDeploymentName() + ").spec.template.spec.containers.(name == "
+                + getContainerName() + ")";
+        List<ConfigReference> configReferences = new ArrayList<>(envs.size());
+        envs.forEach((name, value) -> configReferences.add(new ConfigReference(joinProperties("envs." + name),
+                containerPath + ".env.(name == " + name + ").value", value)));
+        return configReferences;
+    }
+}
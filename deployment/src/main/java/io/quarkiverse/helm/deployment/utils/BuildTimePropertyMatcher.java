@@ -0,0 +1,146 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Checks whether a property is a build time property using the entries of the build time list. Every entry is either:
+ * <ul>
+ * <li>a property name (for example, `quarkus.package.type`) that needs to be equal to the property,</li>
+ * <li>a prefix ending with a dot (for example, `quarkus.kubernetes.`) that the property needs to start with,</li>
+ * <li>or a regular expression (for example, `quarkus.datasource.(.+).db-kind`) that needs to match the whole property.</li>
+ * </ul>
+ *
+ * The entries are compiled only once: the property names in a hash set, the prefixes in a trie of segments, and all the
+ * regular expressions in a single pattern. The results are also cached by property name.
+ */
+public final class BuildTimePropertyMatcher {
+
+    private static final String COMMENT = "#";
+    private static final char DOT = '.';
+    private static final String REGULAR_EXPRESSION_CHARACTERS = "\\[](){}*+?^$|";
+
+    private final Set<String> names = new HashSet<>();
+    private final PrefixNode prefixes = new PrefixNode();
+    private final Pattern pattern;
+    private final Map<String, Boolean> results = new ConcurrentHashMap<>();
+
+    private BuildTimePropertyMatcher(Collection<String> entries) {
+        List<String> regularExpressions = new ArrayList<>();
+        for (String entry : entries) {
+            if (isRegularExpression(entry)) {
+                regularExpressions.add(entry);
+            } else if (entry.charAt(entry.length() - 1) == DOT) {
+                prefixes.add(entry);
+            } else {
+                names.add(entry);
+            }
+        }
+
+        pattern = regularExpressions.isEmpty() ? null
+                : Pattern.compile(regularExpressions.stream()
+                        .map(regularExpression -> "(?:" + regularExpression + ")")
+                        .collect(Collectors.joining("|")));
+    }
+
+    /**
+     * @return the matcher with the entries of the resource. The empty lines and the lines starting with `#` are ignored.
+     */
+    public static BuildTimePropertyMatcher fromResource(String resource) {
+        InputStream is = BuildTimePropertyMatcher.class.getResourceAsStream(resource);
+        if (is == null) {
+            throw new IllegalArgumentException("Resource '" + resource + "' not found");
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+            return fromEntries(reader.lines().collect(Collectors.toList()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static BuildTimePropertyMatcher fromEntries(Collection<String> lines) {
+        return new BuildTimePropertyMatcher(lines.stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith(COMMENT))
+                .collect(Collectors.toList()));
+    }
+
+    public static BuildTimePropertyMatcher empty() {
+        return new BuildTimePropertyMatcher(new ArrayList<>());
+    }
+
+    public boolean matches(String name) {
+        return results.computeIfAbsent(name, this::doMatches);
+    }
+
+    private boolean doMatches(String name) {
+        return names.contains(name)
+                || prefixes.isPrefixOf(name)
+                || (pattern != null && pattern.matcher(name).matches());
+    }
+
+    private static boolean isRegularExpression(String entry) {
+        for (int index = 0; index < entry.length(); index++) {
+            if (REGULAR_EXPRESSION_CHARACTERS.indexOf(entry.charAt(index)) >= 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Node of the trie of prefixes. Every child is a segment of the prefix up to the next dot (included).
+     */
+    private static class PrefixNode {
+        private final Map<String, PrefixNode> children = new HashMap<>();
+        private boolean end;
+
+        void add(String prefix) {
+            PrefixNode node = this;
+            int start = 0;
+            while (start < prefix.length()) {
+                int next = prefix.indexOf(DOT, start) + 1;
+                node = node.children.computeIfAbsent(prefix.substring(start, next), segment -> new PrefixNode());
+                start = next;
+            }
+
+            node.end = true;
+        }
+
+        boolean isPrefixOf(String name) {
+            PrefixNode node = this;
+            int start = 0;
+            while (!node.end) {
+                int next = name.indexOf(DOT, start) + 1;
+                if (next == 0) {
+                    return false;
+                }
+
+                node = node.children.get(name.substring(start, next));
+                if (node == null) {
+                    return false;
+                }
+
+                start = next;
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.dekorate.utils.Strings;
+
+/**
+ * Fingerprint of the inputs that are used to generate a Helm chart: the generated manifests, the configuration, the
+ * user-defined Helm files and the libraries that generate the chart. The fingerprint is stored in the chart output folder
+ * together with the list of the generated files and their digests, so the next builds can check whether the chart needs to
+ * be generated again.
+ */
+public class ChartFingerprint {
+
+    public static final String FINGERPRINT_FILE = ".helm-fingerprint";
+
+    private static final String INPUT = "input ";
+    private static final String OUTPUT = "output ";
+    private static final String SEPARATOR = "/";
+    private static final String NO_DIGEST = "-";
+
+    private final Set<String> inputs = new TreeSet<>();
+
+    public ChartFingerprint addInput(String name, byte[] content) {
+        inputs.add(INPUT + DigestUtils.sha256(content) + " " + name);
+        return this;
+    }
+
+    public ChartFingerprint addInput(String name, Path file) throws IOException {
+        inputs.add(INPUT + DigestUtils.sha256(file) + " " + name);
+        return this;
+    }
+
+    public ChartFingerprint addInputDirectory(String name, Path directory) throws IOException {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return this;
+        }
+
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            files = paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+
+        for (Path file : files) {
+            addInput(name + SEPARATOR + toRelativeName(directory, file), file);
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds the library that contains the given class: its location, which contains the version of the library when it's a
+     * jar from a Maven repository, and its size and last modification time, which change when a snapshot is built again.
+     */
+    public ChartFingerprint addGenerator(String name, Class<?> type) throws IOException {
+        StringBuilder generator = new StringBuilder();
+        CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+        if (codeSource != null && codeSource.getLocation() != null) {
+            generator.append(codeSource.getLocation());
+            try {
+                Path location = Paths.get(codeSource.getLocation().toURI());
+                if (Files.isRegularFile(location)) {
+                    generator.append(' ').append(Files.size(location))
+                            .append(' ').append(Files.getLastModifiedTime(location).toMillis());
+                } else if (Files.isDirectory(location)) {
+                    try (Stream<Path> files = Files.walk(location)) {
+                        generator.append(' ').append(files.filter(Files::isRegularFile)
+                                .mapToLong(file -> file.toFile().lastModified())
+                                .max()
+                                .orElse(0));
+                    }
+                }
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                // not in the file system, so only the location is used
+            }
+        }
+
+        return addInput(name, generator.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ChartFingerprint addInputs(ChartFingerprint other) {
+        inputs.addAll(other.inputs);
+        return this;
+    }
+
+    /**
+     * @return the files that were generated by the previous build with their digests if the fingerprint stored in the
+     *         output folder is the same as this one and all these files still have the same digests. Otherwise, it returns
+     *         an empty optional.
+     */
+    public Optional<Map<String, String>> getGeneratedFilesIfUnchanged(Path outputFolder) throws IOException {
+        Path fingerprintFile = outputFolder.resolve(FINGERPRINT_FILE);
+        if (!Files.exists(fingerprintFile)) {
+            return Optional.empty();
+        }
+
+        List<String> storedInputs = new ArrayList<>();
+        Map<Path, String> storedOutputs = new HashMap<>();
+        for (String line : Files.readAllLines(fingerprintFile, StandardCharsets.UTF_8)) {
+            if (line.startsWith(INPUT)) {
+                storedInputs.add(line);
+            } else if (line.startsWith(OUTPUT)) {
+                String[] digestAndName = line.substring(OUTPUT.length()).split(" ", 2);
+                if (digestAndName.length < 2) {
+                    // written by an older version
+                    return Optional.empty();
+                }
+
+                storedOutputs.put(outputFolder.resolve(digestAndName[1]), digestAndName[0]);
+            }
+        }
+
+        if (!new ArrayList<>(inputs).equals(storedInputs)) {
+            return Optional.empty();
+        }
+
+        // the inputs are the same, so the generated files are only read when the chart might be up-to-date
+        Map<String, String> generatedFiles = new HashMap<>();
+        for (Map.Entry<Path, String> storedOutput : storedOutputs.entrySet()) {
+            Path generatedFile = storedOutput.getKey();
+            String digest = storedOutput.getValue();
+            if (NO_DIGEST.equals(digest)) {
+                if (!Files.isDirectory(generatedFile)) {
+                    return Optional.empty();
+                }
+
+                generatedFiles.put(generatedFile.toString(), null);
+            } else {
+                if (!Files.isRegularFile(generatedFile) || !digest.equals(DigestUtils.sha256(generatedFile))) {
+                    return Optional.empty();
+                }
+
+                generatedFiles.put(generatedFile.toString(), digest);
+            }
+        }
+
+        return Optional.of(generatedFiles);
+    }
+
+    /**
+     * Writes the fingerprint and the generated files with their digests into the output folder. The digests of the files
+     * that were copied (for example, the additional files of the input directory) are computed here, so all the files can
+     * be verified by the next builds. The folders are only checked for existence.
+     */
+    public void write(Path outputFolder, Map<String, String> generatedFiles) throws IOException {
+        List<String> lines = new ArrayList<>(inputs);
+        for (Map.Entry<String, String> generatedFile : new TreeMap<>(generatedFiles).entrySet()) {
+            Path path = new File(generatedFile.getKey()).toPath();
+            if (path.startsWith(outputFolder)) {
+                String digest = generatedFile.getValue();
+                if (Strings.isNullOrEmpty(digest)) {
+                    digest = Files.isRegularFile(path) ? DigestUtils.sha256(path) : NO_DIGEST;
+                }
+
+                lines.add(OUTPUT + digest + " " + toRelativeName(outputFolder, path));
+            }
+        }
+
+        Files.createDirectories(outputFolder);
+        Files.write(outputFolder.resolve(FINGERPRINT_FILE), lines, StandardCharsets.UTF_8);
+    }
+
+    private static String toRelativeName(Path directory, Path file) {
+        return directory.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+}
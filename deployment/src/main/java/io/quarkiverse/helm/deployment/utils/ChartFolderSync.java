@@ -0,0 +1,131 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.quarkus.deployment.util.FileUtil;
+
+/**
+ * Synchronizes the chart folder with the chart that has been generated into a staging folder. Only the files whose content
+ * changed are replaced, so the files that did not change keep their modification time. The files that are not generated
+ * anymore are deleted.
+ */
+public final class ChartFolderSync {
+
+    private int added;
+    private int changed;
+    private int removed;
+    private int untouched;
+
+    private ChartFolderSync() {
+
+    }
+
+    /**
+     * Moves the changed files from the staging folder into the target folder, and deletes the staging folder.
+     *
+     * @param staging the folder with the generated files.
+     * @param target the folder to synchronize.
+     * @param preserved the names of the files at the root of the target folder that are never deleted.
+     * @return the number of files that were added, changed, removed and left untouched.
+     */
+    public static ChartFolderSync sync(Path staging, Path target, Set<String> preserved) throws IOException {
+        ChartFolderSync sync = new ChartFolderSync();
+        Set<Path> generated = new HashSet<>();
+        for (Path source : list(staging)) {
+            Path relative = staging.relativize(source);
+            generated.add(relative);
+            Path destination = target.resolve(relative);
+            if (Files.isDirectory(source)) {
+                if (Files.isRegularFile(destination)) {
+                    Files.delete(destination);
+                    sync.removed++;
+                }
+
+                continue;
+            } else if (Files.isDirectory(destination)) {
+                FileUtil.deleteDirectory(destination);
+            }
+
+            if (!Files.exists(destination)) {
+                Files.createDirectories(destination.getParent());
+                Files.move(source, destination);
+                sync.added++;
+            } else if (hasSameContent(source, destination)) {
+                sync.untouched++;
+            } else {
+                Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING);
+                sync.changed++;
+            }
+        }
+
+        if (Files.exists(target)) {
+            // deepest first, so the folders are empty when they are checked
+            List<Path> existing = list(target);
+            existing.sort(Comparator.reverseOrder());
+            for (Path file : existing) {
+                Path relative = target.relativize(file);
+                if (generated.contains(relative) || (relative.getNameCount() == 1
+                        && preserved.contains(relative.toString()))) {
+                    continue;
+                }
+
+                if (!Files.isDirectory(file)) {
+                    Files.delete(file);
+                    sync.removed++;
+                } else if (isEmpty(file)) {
+                    Files.delete(file);
+                }
+            }
+        }
+
+        FileUtil.deleteIfExists(staging);
+        return sync;
+    }
+
+    public int getAdded() {
+        return added;
+    }
+
+    public int getChanged() {
+        return changed;
+    }
+
+    public int getRemoved() {
+        return removed;
+    }
+
+    public int getUntouched() {
+        return untouched;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d added, %d changed, %d removed and %d untouched files", added, changed, removed, untouched);
+    }
+
+    private static boolean hasSameContent(Path source, Path destination) throws IOException {
+        return Files.size(source) == Files.size(destination)
+                && DigestUtils.sha256(source).equals(DigestUtils.sha256(destination));
+    }
+
+    private static List<Path> list(Path folder) throws IOException {
+        try (Stream<Path> files = Files.walk(folder)) {
+            return files.filter(file -> !file.equals(folder)).collect(Collectors.toList());
+        }
+    }
+
+    private static boolean isEmpty(Path folder) throws IOException {
+        try (Stream<Path> files = Files.list(folder)) {
+            return !files.findAny().isPresent();
+        }
+    }
+}
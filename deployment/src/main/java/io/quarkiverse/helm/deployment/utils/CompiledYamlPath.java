@@ -0,0 +1,197 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * YAMLPath expression that has been analysed once, so it can be reused for all the resources, files and deployment targets
+ * of a build.
+ *
+ * The yaml-path library interprets the expression every time it's evaluated and doesn't expose any compiled form of it, so
+ * the analysis is limited to the root filter of the expression, for example: `(kind == Deployment).spec.replicas`. Using
+ * this filter, the resources that can't match the expression are skipped before calling the library.
+ *
+ * The compiled expressions are cached until {@link #clearCache()} is called at the end of the build.
+ */
+public final class CompiledYamlPath {
+
+    private static final Map<String, CompiledYamlPath> CACHE = new ConcurrentHashMap<>();
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    private static final String FILTER_START = "(";
+    private static final String FILTER_END = ")";
+    private static final String DOT = ".";
+    private static final String AND = "&&";
+    private static final String OR = "||";
+    private static final String IS_EQUAL = "==";
+    private static final String QUOTE = "'";
+    private static final Pattern SIMPLE_PROPERTY = Pattern.compile("[A-Za-z0-9_\\-]+(\\.[A-Za-z0-9_\\-]+)*");
+    private static final CompiledYamlPath NO_PATH = new CompiledYamlPath(null);
+
+    private final String path;
+    private final List<Condition> rootConditions;
+    private final String rootFilter;
+
+    private CompiledYamlPath(String path) {
+        this.path = path;
+        this.rootConditions = parseRootConditions(path);
+        this.rootFilter = rootConditions.isEmpty() ? null : path.substring(0, path.indexOf(FILTER_END) + 1);
+    }
+
+    public static CompiledYamlPath compile(String path) {
+        if (path == null) {
+            // let the library decide what to do with missing paths
+            return NO_PATH;
+        }
+
+        CompiledYamlPath compiled = CACHE.get(path);
+        if (compiled != null) {
+            HITS.incrementAndGet();
+            return compiled;
+        }
+
+        MISSES.incrementAndGet();
+        return CACHE.computeIfAbsent(path, CompiledYamlPath::new);
+    }
+
+    /**
+     * Removes the compiled expressions and resets the counters, so nothing is kept from one build to the next.
+     */
+    public static void clearCache() {
+        CACHE.clear();
+        HITS.set(0);
+        MISSES.set(0);
+    }
+
+    /**
+     * @return the number of times a compiled expression was reused.
+     */
+    public static long getHits() {
+        return HITS.get();
+    }
+
+    /**
+     * @return the number of times an expression had to be compiled.
+     */
+    public static long getMisses() {
+        return MISSES.get();
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the root filter that is used to skip the resources, for example: `(kind == Deployment)`, or null if no resource
+     *         is skipped.
+     */
+    public String getRootFilter() {
+        return rootFilter;
+    }
+
+    /**
+     * @return false if the resource doesn't satisfy the root filter of the expression, so the expression will not match
+     *         anything. Otherwise, true.
+     */
+    public boolean mayMatch(Map<Object, Object> resource) {
+        for (Condition condition : rootConditions) {
+            if (condition.isFalse(resource)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the resources that may match the expression.
+     */
+    public List<Map<Object, Object>> filter(List<Map<Object, Object>> resources) {
+        if (rootConditions.isEmpty()) {
+            return resources;
+        }
+
+        List<Map<Object, Object>> matching = new ArrayList<>(resources.size());
+        for (Map<Object, Object> resource : resources) {
+            if (mayMatch(resource)) {
+                matching.add(resource);
+            }
+        }
+
+        return matching;
+    }
+
+    /**
+     * Only the filters with `==` conditions joined by `&&` on simple properties are supported. For other filters, no
+     * condition is returned, so no resource is skipped.
+     */
+    private static List<Condition> parseRootConditions(String path) {
+        if (path == null || !path.startsWith(FILTER_START)) {
+            return Collections.emptyList();
+        }
+
+        int end = path.indexOf(FILTER_END);
+        if (end < 0 || (end + 1 < path.length() && !path.startsWith(DOT, end + 1))) {
+            return Collections.emptyList();
+        }
+
+        String filter = path.substring(FILTER_START.length(), end);
+        if (filter.contains(OR) || filter.contains(QUOTE)) {
+            return Collections.emptyList();
+        }
+
+        List<Condition> conditions = new ArrayList<>();
+        for (String part : filter.split(Pattern.quote(AND))) {
+            String[] sides = part.split(IS_EQUAL);
+            if (sides.length != 2) {
+                return Collections.emptyList();
+            }
+
+            String property = sides[0].trim();
+            String value = sides[1].trim();
+            if (!SIMPLE_PROPERTY.matcher(property).matches() || value.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            conditions.add(new Condition(property.split(Pattern.quote(DOT)), value));
+        }
+
+        return conditions;
+    }
+
+    private static class Condition {
+        private final String[] property;
+        private final String value;
+
+        Condition(String[] property, String value) {
+            this.property = property;
+            this.value = value;
+        }
+
+        /**
+         * @return true only when the condition is certainly not satisfied by the resource.
+         */
+        boolean isFalse(Map<Object, Object> resource) {
+            Object current = resource;
+            for (String key : property) {
+                if (!(current instanceof Map)) {
+                    // the library might handle other structures differently, so let it decide
+                    return false;
+                }
+
+                current = ((Map<?, ?>) current).get(key);
+                if (current == null) {
+                    return true;
+                }
+            }
+
+            return current instanceof String && !value.equals(current);
+        }
+    }
+}
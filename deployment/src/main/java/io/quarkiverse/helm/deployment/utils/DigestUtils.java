@@ -0,0 +1,66 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public final class DigestUtils {
+
+    private static final String SHA_1 = "SHA-1";
+    private static final String SHA_256 = "SHA-256";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int BUFFER_SIZE = 8192;
+
+    private DigestUtils() {
+
+    }
+
+    public static MessageDigest newSha256() {
+        return newDigest(SHA_256);
+    }
+
+    public static String sha256(byte[] content) {
+        return toHex(newSha256().digest(content));
+    }
+
+    public static String sha256(Path file) throws IOException {
+        return digest(newSha256(), file);
+    }
+
+    public static String sha1(Path file) throws IOException {
+        return digest(newDigest(SHA_1), file);
+    }
+
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int index = 0; index < bytes.length; index++) {
+            chars[index * 2] = HEX[(bytes[index] >> 4) & 0xF];
+            chars[index * 2 + 1] = HEX[bytes[index] & 0xF];
+        }
+
+        return new String(chars);
+    }
+
+    private static String digest(MessageDigest digest, Path file) throws IOException {
+        try (InputStream is = Files.newInputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, length);
+            }
+        }
+
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("The " + algorithm + " algorithm is not supported by the JVM", e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+
+/**
+ * Copies files and folders without reading their content into the heap: the content is transferred from channel to
+ * channel, which lets the operating system copy it directly, or the files are hard linked when it's enabled.
+ */
+public final class FileCopyUtils {
+
+    private FileCopyUtils() {
+
+    }
+
+    /**
+     * Copies the file or, recursively, the folder into the destination. The symbolic links are followed, so a linked folder
+     * is copied like a regular one. The existing files of the destination are replaced, not written into, since they might
+     * be links to the source files.
+     *
+     * @param source the file or folder to copy.
+     * @param destination the path of the copy.
+     * @param hardLinks whether to create hard links to the source files instead of copying them. If the links can't be
+     *        created (for example, because the source and the destination are not in the same file system), the files are
+     *        copied. A linked file shares its content with the source file, so it must never be written afterward: only
+     *        use it for files that are not modified once they are in the chart.
+     */
+    public static void copy(Path source, Path destination, boolean hardLinks) throws IOException {
+        if (destination.getParent() != null) {
+            Files.createDirectories(destination.getParent());
+        }
+
+        Files.walkFileTree(source, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+            private boolean link = hardLinks;
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(destination.resolve(source.relativize(directory)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path target = destination.resolve(source.relativize(file));
+                Files.deleteIfExists(target);
+                if (link) {
+                    try {
+                        // the link must point to the content, not to a symbolic link
+                        Files.createLink(target, file.toRealPath());
+                        return FileVisitResult.CONTINUE;
+                    } catch (FileSystemException | UnsupportedOperationException e) {
+                        // not supported between these folders, so there is no need to try with the next files
+                        link = false;
+                    }
+                }
+
+                copyFile(file, target);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void copyFile(Path source, Path destination) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(destination, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                long transferred = in.transferTo(position, size - position, out);
+                if (transferred <= 0) {
+                    // the file was truncated while copying it
+                    break;
+                }
+
+                position += transferred;
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.dekorate.utils.Serialization;
+
+/**
+ * Report of the generation of the Helm chart of a deployment target: how long every phase took and how many resources
+ * and bytes were processed. It's written as JSON next to the chart, so the generation cost can be tracked over time.
+ */
+public class HelmBuildReport {
+
+    public static final String REPORT_FILE = "helm-build-report.json";
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    public enum Phase {
+        FINGERPRINT("fingerprint"),
+        VALUES_POPULATION("valuesPopulation"),
+        YAML_PARSING("yamlParsing"),
+        VALUE_REFERENCES("valueReferences"),
+        EXPRESSIONS("expressions"),
+        TEMPLATE_POST_PROCESSING("templatePostProcessing"),
+        VALUES_AND_CHART_WRITING("valuesAndChartWriting"),
+        DEPENDENCY_FETCH("dependencyFetch"),
+        TARBALL("tarball"),
+        SYNC("sync"),
+        PUSH("push");
+
+        private final String name;
+
+        Phase(String name) {
+            this.name = name;
+        }
+    }
+
+    private final String deploymentTarget;
+    private final long start = System.nanoTime();
+    private final Map<Phase, Long> durations = new EnumMap<>(Phase.class);
+    private String chartName;
+    private boolean upToDate;
+    private long totalDuration;
+    private int manifests;
+    private int resources;
+    private long manifestBytes;
+    private long templateBytes;
+    private int generatedFiles;
+    private long generatedBytes;
+    private long tarballBytes;
+    private String tarballSha256;
+    private Long skippedPushBytes;
+    private int redundantValueReferences;
+    private int redundantValueReferencePaths;
+    private ChartFolderSync sync;
+
+    public HelmBuildReport(String deploymentTarget) {
+        this.deploymentTarget = deploymentTarget;
+    }
+
+    /**
+     * Adds the time elapsed since the start time to the duration of the phase.
+     *
+     * @param phase the phase.
+     * @param startTime the start time as returned by {@link System#nanoTime()}.
+     */
+    public void addDuration(Phase phase, long startTime) {
+        durations.merge(phase, System.nanoTime() - startTime, Long::sum);
+    }
+
+    public void setChartName(String chartName) {
+        this.chartName = chartName;
+    }
+
+    public void setUpToDate(boolean upToDate) {
+        this.upToDate = upToDate;
+    }
+
+    public void addManifest(long bytes) {
+        manifests++;
+        manifestBytes += bytes;
+    }
+
+    public void addResources(int count) {
+        resources += count;
+    }
+
+    public void addTemplateBytes(long bytes) {
+        templateBytes += bytes;
+    }
+
+    public void addGeneratedFile(long bytes) {
+        generatedFiles++;
+        generatedBytes += bytes;
+    }
+
+    public void setTarballBytes(long tarballBytes) {
+        this.tarballBytes = tarballBytes;
+    }
+
+    public void setTarballSha256(String tarballSha256) {
+        this.tarballSha256 = tarballSha256;
+    }
+
+    /**
+     * @param skippedPushBytes the size of the tarball that was not pushed because the repository already had it.
+     */
+    public void setSkippedPushBytes(long skippedPushBytes) {
+        this.skippedPushBytes = skippedPushBytes;
+    }
+
+    /**
+     * @param references the number of value references that were removed because they were equal to a previous one.
+     * @param paths the number of paths of these references, which would have been looked up in every manifest.
+     */
+    public void setRedundantValueReferences(int references, int paths) {
+        this.redundantValueReferences = references;
+        this.redundantValueReferencePaths = paths;
+    }
+
+    /**
+     * @param sync the result of the synchronization of the chart folder when the differential write is enabled.
+     */
+    public void setSync(ChartFolderSync sync) {
+        this.sync = sync;
+    }
+
+    /**
+     * Stops the total timer of the generation.
+     */
+    public void finish() {
+        totalDuration = System.nanoTime() - start;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> phases = new LinkedHashMap<>();
+        for (Map.Entry<Phase, Long> duration : durations.entrySet()) {
+            phases.put(duration.getKey().name, toMillis(duration.getValue()));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("deploymentTarget", deploymentTarget);
+        report.put("chart", chartName);
+        report.put("upToDate", upToDate);
+        report.put("totalMillis", toMillis(getTotalDuration()));
+        report.put("phasesMillis", phases);
+        report.put("manifests", manifests);
+        report.put("manifestBytes", manifestBytes);
+        report.put("resources", resources);
+        report.put("templateBytes", templateBytes);
+        report.put("generatedFiles", generatedFiles);
+        report.put("generatedBytes", generatedBytes);
+        report.put("tarballBytes", tarballBytes);
+        if (tarballSha256 != null) {
+            report.put("tarballSha256", tarballSha256);
+        }
+
+        report.put("redundantValueReferences", redundantValueReferences);
+        // every path is looked up in every manifest, whether it matches a resource or not
+        report.put("estimatedEliminatedWrites", (long) redundantValueReferencePaths * manifests);
+        if (skippedPushBytes != null) {
+            report.put("pushSkipped", true);
+            report.put("savedPushBytes", skippedPushBytes);
+        }
+
+        if (sync != null) {
+            Map<String, Object> syncedFiles = new LinkedHashMap<>();
+            syncedFiles.put("added", sync.getAdded());
+            syncedFiles.put("changed", sync.getChanged());
+            syncedFiles.put("removed", sync.getRemoved());
+            syncedFiles.put("untouched", sync.getUntouched());
+            report.put("sync", syncedFiles);
+        }
+
+        return report;
+    }
+
+    /**
+     * @return the report in a single line to be logged.
+     */
+    public String toSummary() {
+        if (upToDate) {
+            return String.format("Helm chart for '%s' was up to date (checked in %.1f ms)", deploymentTarget,
+                    toMillis(getTotalDuration()));
+        }
+
+        String summary = String.format("Helm chart for '%s' generated in %.1f ms: %d resources from %d bytes of manifests, "
+                + "%d files with %d bytes, tarball of %d bytes", deploymentTarget, toMillis(getTotalDuration()), resources,
+                manifestBytes, generatedFiles, generatedBytes, tarballBytes);
+        return sync == null ? summary : summary + " (" + sync + ")";
+    }
+
+    /**
+     * Writes the report into the given folder.
+     *
+     * @return the path of the report.
+     */
+    public Path write(Path folder) throws IOException {
+        Files.createDirectories(folder);
+        Path file = folder.resolve(REPORT_FILE);
+        Serialization.jsonMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), toMap());
+        return file;
+    }
+
+    /**
+     * The push happens once all the charts have been generated, so its duration is added to the generation one.
+     */
+    private long getTotalDuration() {
+        return totalDuration + durations.getOrDefault(Phase.PUSH, 0L);
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / NANOS_PER_MILLI * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,214 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.dekorate.utils.Serialization;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.github.yamlpath.YamlExpressionParser;
+import io.github.yamlpath.YamlPath;
+
+/**
+ * Source of the Kubernetes manifests to include in the Helm chart. The manifests can be read from a file, from the
+ * in-memory content of the generated resources or from resources that have already been parsed, so they don't need to
+ * be written into temporary files before generating the chart.
+ */
+public abstract class ManifestSource {
+
+    private final String name;
+
+    protected ManifestSource(String name) {
+        this.name = name;
+    }
+
+    public static ManifestSource fromFile(File file) {
+        return new FileManifestSource(file);
+    }
+
+    public static ManifestSource fromBytes(String name, byte[] content) {
+        return new BytesManifestSource(name, content);
+    }
+
+    public static ManifestSource fromResources(String name, List<Map<Object, Object>> resources) {
+        return new ResourcesManifestSource(name, resources, null);
+    }
+
+    /**
+     * @param name the file name of the manifests.
+     * @param resources the resources of the dekorate session.
+     * @param content the resources serialized by the dekorate session, so they are not serialized again to compute the
+     *        fingerprint of the chart.
+     * @return the source of the resources, converted into the same maps as when the content is parsed.
+     */
+    public static ManifestSource fromResources(String name, KubernetesList resources, byte[] content) {
+        // the same mapper that serialized the content
+        ObjectMapper mapper = Serialization.yamlMapper();
+        List<Map<Object, Object>> maps = new ArrayList<>();
+        for (HasMetadata resource : resources.getItems()) {
+            maps.add(toMap(mapper.valueToTree(resource)));
+        }
+
+        return new ResourcesManifestSource(name, maps, content);
+    }
+
+    /**
+     * @return the file name of the manifests, for example: `kubernetes.yml`.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the parser of the manifests. Changes done using the parser are not propagated to the source.
+     */
+    public abstract YamlExpressionParser parse() throws IOException;
+
+    /**
+     * @return the serialized manifests.
+     */
+    public abstract byte[] getContent() throws IOException;
+
+    /**
+     * @return the size in bytes of the serialized manifests.
+     */
+    public long getSize() throws IOException {
+        return getContent().length;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private static Map<Object, Object> toMap(JsonNode node) {
+        Map<Object, Object> map = new LinkedHashMap<>();
+        node.fields().forEachRemaining(field -> map.put(field.getKey(), toValue(field.getValue())));
+        return map;
+    }
+
+    /**
+     * Converts the node into the value of the parsed YAML content, where the integers use the smallest type they fit in.
+     */
+    private static Object toValue(JsonNode node) {
+        if (node.isObject()) {
+            return toMap(node);
+        } else if (node.isArray()) {
+            List<Object> list = new ArrayList<>();
+            node.forEach(element -> list.add(toValue(element)));
+            return list;
+        } else if (node.isIntegralNumber()) {
+            if (node.canConvertToInt()) {
+                return node.intValue();
+            }
+
+            return node.canConvertToLong() ? node.longValue() : node.bigIntegerValue();
+        } else if (node.isNumber()) {
+            return node.doubleValue();
+        } else if (node.isBoolean()) {
+            return node.booleanValue();
+        } else if (node.isNull()) {
+            return null;
+        }
+
+        return node.asText();
+    }
+
+    private static YamlExpressionParser read(InputStream is) throws IOException {
+        try (InputStream source = is) {
+            return YamlPath.from(source);
+        }
+    }
+
+    private static class FileManifestSource extends ManifestSource {
+        private final File file;
+
+        FileManifestSource(File file) {
+            super(file.getName());
+            this.file = file;
+        }
+
+        @Override
+        public YamlExpressionParser parse() throws IOException {
+            return read(Files.newInputStream(file.toPath()));
+        }
+
+        @Override
+        public byte[] getContent() throws IOException {
+            return Files.readAllBytes(file.toPath());
+        }
+
+        @Override
+        public long getSize() throws IOException {
+            return Files.size(file.toPath());
+        }
+
+        @Override
+        public String toString() {
+            return file.toString();
+        }
+    }
+
+    private static class BytesManifestSource extends ManifestSource {
+        private final byte[] content;
+
+        BytesManifestSource(String name, byte[] content) {
+            super(name);
+            this.content = content;
+        }
+
+        @Override
+        public YamlExpressionParser parse() throws IOException {
+            return read(new ByteArrayInputStream(content));
+        }
+
+        @Override
+        public byte[] getContent() {
+            return content;
+        }
+    }
+
+    private static class ResourcesManifestSource extends ManifestSource {
+        private final List<Map<Object, Object>> resources;
+        private byte[] content;
+
+        ResourcesManifestSource(String name, List<Map<Object, Object>> resources, byte[] content) {
+            super(name);
+            this.resources = resources;
+            this.content = content;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public YamlExpressionParser parse() {
+            // the parser replaces the values in place, so it needs its own copy of the resources
+            return new YamlExpressionParser(resources.stream()
+                    .map(resource -> (Map<Object, Object>) MapUtils.copyOf(resource))
+                    .collect(Collectors.toList()));
+        }
+
+        @Override
+        public byte[] getContent() {
+            if (content == null) {
+                content = resources.stream()
+                        .map(Serialization::asYaml)
+                        .collect(Collectors.joining())
+                        .getBytes(StandardCharsets.UTF_8);
+            }
+
+            return content;
+        }
+    }
+}
@@ -1,12 +1,24 @@
 package io.quarkiverse.helm.deployment.utils;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.function.Supplier;
-import java.util.regex.Pattern;
+
+import org.jboss.logging.Logger;
 
 public final class MapUtils {
+
+    private static final Logger LOGGER = Logger.getLogger(MapUtils.class);
+    private static final char DOT = '.';
+    private static final char ESCAPE = '\\';
+
     private MapUtils() {
 
     }
@@ -19,31 +31,139 @@ public final class MapUtils {
         return toMultiValueMap(map, TreeMap::new);
     }
 
+    /**
+     * Copy the value if it's a mutable structure (maps and collections), so it can be safely modified without altering the
+     * original object. The iteration order of the copied structures is preserved.
+     */
+    public static Object copyOf(Object value) {
+        if (value instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> copy.put(k, copyOf(v)));
+            return copy;
+        } else if (value instanceof Collection) {
+            List<Object> copy = new ArrayList<>();
+            ((Collection<?>) value).forEach(v -> copy.add(copyOf(v)));
+            return copy;
+        }
+
+        return value;
+    }
+
+    /**
+     * Builds the nested maps of the dotted keys in a single pass, for example: `a.b.c=1` and `a.b.d=2` into
+     * `{a: {b: {c: 1, d: 2}}}`. The intermediate maps are shared by all the keys with the same prefix. Dots can be escaped
+     * with a backslash to be part of a key, for example: `a\.b.c=1` into `{a.b: {c: 1}}`.
+     *
+     * When a key is both a value and the prefix of other keys (for example: `a.b=1` and `a.b.c=2`), the nested map wins and
+     * the value is ignored with a warning. When two keys are the same property (for example: `a.b=1` and `a.b.=2`), the
+     * last value wins, also with a warning.
+     */
     private static Map<String, Object> toMultiValueMap(Map<String, Object> map, Supplier<Map<String, Object>> supplier) {
         Map<String, Object> multiValueMap = supplier.get();
-        map.forEach((k, v) -> {
-
-            String[] nodes = k.split(Pattern.quote("."));
-            if (nodes.length == 1) {
-                multiValueMap.put(k, v);
-            } else {
-                Map<String, Object> auxKeyValue = multiValueMap;
-                for (int index = 0; index < nodes.length - 1; index++) {
-                    String nodeName = nodes[index];
-                    Object nodeKeyValue = auxKeyValue.get(nodeName);
-                    if (nodeKeyValue == null || !(nodeKeyValue instanceof Map)) {
-                        nodeKeyValue = supplier.get();
-                    }
-
-                    auxKeyValue.put(nodes[index], nodeKeyValue);
-                    auxKeyValue = (Map<String, Object>) nodeKeyValue;
-                }
-
-                auxKeyValue.put(nodes[nodes.length - 1], v);
+        // the maps created here, which can be safely modified
+        Map<Object, Map<String, Object>> nodes = new IdentityHashMap<>();
+        nodes.put(multiValueMap, multiValueMap);
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            List<String> segments = split(entry.getKey());
+            Map<String, Object> node = multiValueMap;
+            for (int index = 0; index < segments.size() - 1; index++) {
+                node = getOrCreateNode(node, segments.get(index), entry.getKey(), nodes, supplier);
             }
-        });
+
+            putValue(node, segments.get(segments.size() - 1), entry.getValue(), entry.getKey(), nodes, supplier);
+        }
 
         return multiValueMap;
     }
 
+    private static Map<String, Object> getOrCreateNode(Map<String, Object> parent, String segment, String key,
+            Map<Object, Map<String, Object>> nodes, Supplier<Map<String, Object>> supplier) {
+        Object current = parent.get(segment);
+        Map<String, Object> node = current == null ? null : nodes.get(current);
+        if (node != null) {
+            return node;
+        }
+
+        Map<String, Object> created = supplier.get();
+        nodes.put(created, created);
+        if (current instanceof Map) {
+            // a map value, so it's copied before adding the new keys
+            ((Map<?, ?>) current).forEach((k, v) -> created.put(String.valueOf(k), v));
+        } else if (current != null) {
+            LOGGER.warnf("Ignoring the value '%s' of a prefix of the property '%s' because nested properties win", current,
+                    key);
+        }
+
+        parent.put(segment, created);
+        return created;
+    }
+
+    private static void putValue(Map<String, Object> parent, String segment, Object value, String key,
+            Map<Object, Map<String, Object>> nodes, Supplier<Map<String, Object>> supplier) {
+        Object current = parent.get(segment);
+        if (current == null) {
+            parent.put(segment, value);
+        } else if (current instanceof Map && value instanceof Map) {
+            Map<String, Object> node = getOrCreateNode(parent, segment, key, nodes, supplier);
+            ((Map<?, ?>) value)
+                    .forEach((k, v) -> putValue(node, String.valueOf(k), v, key + "." + k, nodes, supplier));
+        } else if (current instanceof Map) {
+            LOGGER.warnf("Ignoring the value '%s' of the property '%s' because nested properties win", value, key);
+        } else if (value instanceof Map) {
+            LOGGER.warnf("Ignoring the value '%s' of the property '%s' because nested properties win", current, key);
+            parent.put(segment, value);
+        } else {
+            // the same property with trailing dots, for example: `a.b` and `a.b.`
+            LOGGER.warnf("Replacing the value '%s' of the property '%s' with '%s'", current, key, value);
+            parent.put(segment, value);
+        }
+    }
+
+    /**
+     * @return the segments of the key separated by the dots that are not escaped. Like {@link String#split(String)}, the
+     *         trailing empty segments are dropped (`a.b.` is `a.b`), and a key with a single segment is kept as it is
+     *         (`a.` is not `a`).
+     */
+    private static List<String> split(String key) {
+        List<String> segments = new ArrayList<>();
+        String unescapedKey = key;
+        if (key.indexOf(ESCAPE) < 0) {
+            int start = 0;
+            int dot;
+            while ((dot = key.indexOf(DOT, start)) >= 0) {
+                segments.add(key.substring(start, dot));
+                start = dot + 1;
+            }
+
+            segments.add(key.substring(start));
+        } else {
+            StringBuilder segment = new StringBuilder();
+            for (int index = 0; index < key.length(); index++) {
+                char current = key.charAt(index);
+                if (current == ESCAPE && index + 1 < key.length() && key.charAt(index + 1) == DOT) {
+                    segment.append(DOT);
+                    index++;
+                } else if (current == DOT) {
+                    segments.add(segment.toString());
+                    segment.setLength(0);
+                } else {
+                    segment.append(current);
+                }
+            }
+
+            segments.add(segment.toString());
+            unescapedKey = key.replace(ESCAPE + "" + DOT, String.valueOf(DOT));
+        }
+
+        int size = segments.size();
+        while (size > 0 && segments.get(size - 1).isEmpty()) {
+            size--;
+        }
+
+        if (size <= 1) {
+            return Collections.singletonList(unescapedKey);
+        }
+
+        return segments.subList(0, size);
+    }
 }
@@ -0,0 +1,159 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses the content with gzip in blocks that are compressed in parallel. Every block is written as a complete gzip
+ * member, and the concatenation of gzip members is a valid gzip stream (see RFC 1952) that Helm and the gzip tools read as
+ * a single file.
+ */
+public final class ParallelGzipOutputStream extends OutputStream {
+
+    private static final int BLOCK_SIZE = 128 * 1024;
+    private static final int BUFFER_SIZE = 8192;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final OutputStream out;
+    private final int level;
+    private final int maxPendingBlocks;
+    private final ExecutorService executor;
+    private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+    private byte[] block = new byte[BLOCK_SIZE];
+    private int blockLength;
+    private boolean blockSubmitted;
+    private boolean closed;
+
+    private ParallelGzipOutputStream(OutputStream out, int level, int threads) {
+        this.out = out;
+        this.level = level;
+        // the blocks are written in order, so limit how many compressed blocks wait in memory
+        this.maxPendingBlocks = threads * 2;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "helm-gzip-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param out the stream to write the compressed content into.
+     * @param level the compression level, from 0 to 9, or -1 for the default level of the JDK.
+     * @param threads the number of threads compressing the blocks. With a single thread, the content is compressed in a
+     *        single gzip member.
+     * @return the stream to write the content to compress into.
+     */
+    public static OutputStream create(OutputStream out, int level, int threads) throws IOException {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("The compression level must be between -1 and 9, but it was " + level);
+        }
+
+        if (threads <= 1) {
+            return new LeveledGzipOutputStream(out, level);
+        }
+
+        return new ParallelGzipOutputStream(out, level, threads);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        block[blockLength++] = (byte) b;
+        if (blockLength == BLOCK_SIZE) {
+            submitBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            int copied = Math.min(length, BLOCK_SIZE - blockLength);
+            System.arraycopy(bytes, offset, block, blockLength, copied);
+            blockLength += copied;
+            offset += copied;
+            length -= copied;
+            if (blockLength == BLOCK_SIZE) {
+                submitBlock();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        try {
+            // an empty content still needs one member to be a valid gzip stream
+            if (blockLength > 0 || !blockSubmitted) {
+                submitBlock();
+            }
+
+            while (!pendingBlocks.isEmpty()) {
+                writeNextBlock();
+            }
+        } finally {
+            executor.shutdownNow();
+            out.close();
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        byte[] content = block;
+        int length = blockLength;
+        pendingBlocks.add(executor.submit(() -> compress(content, length)));
+        blockSubmitted = true;
+        block = new byte[BLOCK_SIZE];
+        blockLength = 0;
+        if (pendingBlocks.size() >= maxPendingBlocks) {
+            writeNextBlock();
+        }
+    }
+
+    private void writeNextBlock() throws IOException {
+        try {
+            out.write(pendingBlocks.poll().get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing the content");
+        } catch (ExecutionException e) {
+            throw new IOException("Error compressing the content", e.getCause());
+        }
+    }
+
+    private byte[] compress(byte[] content, int length) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2 + BUFFER_SIZE);
+        try (GZIPOutputStream gzip = new LeveledGzipOutputStream(compressed, level)) {
+            gzip.write(content, 0, length);
+        }
+
+        return compressed.toByteArray();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("The stream is closed");
+        }
+    }
+
+    private static class LeveledGzipOutputStream extends GZIPOutputStream {
+        LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import io.dekorate.helm.config.HelmChartConfig;
+import io.dekorate.helm.config.HelmDependency;
+import io.dekorate.utils.Strings;
+
+/**
+ * Deducts the properties of the values file of a Helm chart (see {@link HelmConfigUtils#deductProperty}).
+ *
+ * The names of the dependencies are computed once for the chart and the deducted properties are cached, so the same
+ * properties can be deducted for every value reference and every file at the cost of a lookup.
+ */
+public final class PropertyDeductionContext {
+
+    private static final String ROOTLESS_PROPERTY = "@.";
+    private static final char DOT = '.';
+
+    private final String rootPrefix;
+    private final Set<String> dependencyNames = new HashSet<>();
+    private final Map<String, String> properties = new HashMap<>();
+
+    public PropertyDeductionContext(HelmChartConfig helmConfig) {
+        this.rootPrefix = helmConfig.getValuesRootAlias() + DOT;
+        if (helmConfig.getDependencies() != null) {
+            for (HelmDependency dependency : helmConfig.getDependencies()) {
+                dependencyNames.add(Strings.defaultIfEmpty(dependency.getAlias(), dependency.getName()));
+            }
+        }
+    }
+
+    /**
+     * @return the property prefixed by the values root alias, unless it's rootless (starting with `@.`) or it starts with
+     *         the name of a dependency.
+     */
+    public String deductProperty(String property) {
+        String deducted = properties.get(property);
+        if (deducted == null) {
+            deducted = doDeductProperty(property);
+            properties.put(property, deducted);
+        }
+
+        return deducted;
+    }
+
+    private String doDeductProperty(String property) {
+        if (property.startsWith(ROOTLESS_PROPERTY)) {
+            return property.substring(ROOTLESS_PROPERTY.length());
+        }
+
+        if (!startWithDependencyPrefix(property) && !property.startsWith(rootPrefix)) {
+            return rootPrefix + property;
+        }
+
+        return property;
+    }
+
+    private boolean startWithDependencyPrefix(String property) {
+        if (dependencyNames.isEmpty()) {
+            return false;
+        }
+
+        // the property needs at least two segments, so something else than dots must follow the first dot
+        int dot = property.indexOf(DOT);
+        if (dot < 0) {
+            return false;
+        }
+
+        for (int index = dot + 1; index < property.length(); index++) {
+            if (property.charAt(index) != DOT) {
+                return dependencyNames.contains(property.substring(0, dot));
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,162 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tree of the system properties of a raw value, for example: `${A:${B:default}}` is the system property `A` that has the
+ * system property `B` as default value, which has `default` as default value.
+ *
+ * The raw value is parsed in linear time. The parsed trees are not cached: the raw values might contain secrets, which
+ * must not be kept once the build is done.
+ */
+public final class SystemPropertyExpression {
+
+    private static final String SYSTEM_PROPERTY_START = "${";
+    private static final char SYSTEM_PROPERTY_END = '}';
+    private static final char DEFAULT_VALUE_SEPARATOR = ':';
+
+    private final String rawValue;
+    private final List<SystemProperty> systemProperties;
+
+    private SystemPropertyExpression(String rawValue, List<SystemProperty> systemProperties) {
+        this.rawValue = rawValue;
+        this.systemProperties = systemProperties;
+    }
+
+    public static SystemPropertyExpression parse(String rawValue) {
+        Parser parser = new Parser(rawValue);
+        List<SystemProperty> systemProperties = parser.parseSystemProperties(false);
+        return new SystemPropertyExpression(rawValue, systemProperties);
+    }
+
+    /**
+     * @return the raw value the expression was parsed from.
+     */
+    public String getRawValue() {
+        return rawValue;
+    }
+
+    /**
+     * @return the system properties at the first level of the expression, in the order they appear.
+     */
+    public List<SystemProperty> getSystemProperties() {
+        return systemProperties;
+    }
+
+    public static class SystemProperty {
+        private final String name;
+        private final String content;
+        private final SystemPropertyExpression defaultValue;
+
+        SystemProperty(String name, String content, SystemPropertyExpression defaultValue) {
+            this.name = name;
+            this.content = content;
+            this.defaultValue = defaultValue;
+        }
+
+        /**
+         * @return the name of the system property, for example: `A` in `${A:default}`.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the content between the braces, for example: `A:default` in `${A:default}`.
+         */
+        public String getContent() {
+            return content;
+        }
+
+        /**
+         * @return the expression of the default value, or null if there is no default value.
+         */
+        public SystemPropertyExpression getDefaultValue() {
+            return defaultValue;
+        }
+    }
+
+    private static class Parser {
+        private final String value;
+        // The positions of the system properties that have no closing brace. Parsing a system property only depends on its
+        // position, so these are never parsed twice, otherwise values like `${a:${a:${a:` would take quadratic time.
+        private final BitSet unclosed = new BitSet();
+        private int position;
+
+        Parser(String value) {
+            this.value = value;
+        }
+
+        /**
+         * Parses the system properties until the end of the value or, if nested, until the closing brace of the system
+         * property the expression is the default value of.
+         *
+         * @return the system properties or null if the nested expression has no closing brace.
+         */
+        List<SystemProperty> parseSystemProperties(boolean nested) {
+            List<SystemProperty> systemProperties = new ArrayList<>();
+            while (position < value.length()) {
+                if (value.startsWith(SYSTEM_PROPERTY_START, position)) {
+                    int start = position;
+                    SystemProperty systemProperty = unclosed.get(start) ? null : parseSystemProperty();
+                    if (systemProperty == null) {
+                        unclosed.set(start);
+                        if (nested) {
+                            return null;
+                        }
+
+                        // not closed, so it's not a system property
+                        position = start + SYSTEM_PROPERTY_START.length();
+                    } else {
+                        systemProperties.add(systemProperty);
+                    }
+                } else if (nested && value.charAt(position) == SYSTEM_PROPERTY_END) {
+                    return systemProperties;
+                } else {
+                    position++;
+                }
+            }
+
+            return nested ? null : systemProperties.isEmpty() ? Collections.emptyList() : systemProperties;
+        }
+
+        /**
+         * Parses the system property at the current position and moves the position after its closing brace.
+         *
+         * @return the system property or null if it has no closing brace.
+         */
+        SystemProperty parseSystemProperty() {
+            position += SYSTEM_PROPERTY_START.length();
+            int contentStart = position;
+            while (position < value.length()) {
+                char current = value.charAt(position);
+                if (current == SYSTEM_PROPERTY_END) {
+                    String name = value.substring(contentStart, position);
+                    position++;
+                    return new SystemProperty(name, name, null);
+                } else if (current == DEFAULT_VALUE_SEPARATOR) {
+                    String name = value.substring(contentStart, position);
+                    position++;
+                    int defaultValueStart = position;
+                    List<SystemProperty> defaultValueProperties = parseSystemProperties(true);
+                    if (defaultValueProperties == null) {
+                        return null;
+                    }
+
+                    String defaultValue = value.substring(defaultValueStart, position);
+                    String content = value.substring(contentStart, position);
+                    position++;
+                    return new SystemProperty(name, content,
+                            new SystemPropertyExpression(defaultValue, defaultValueProperties));
+                }
+
+                position++;
+            }
+
+            return null;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a tar archive, optionally compressed with gzip (see {@link ParallelGzipOutputStream}), whose entries are
+ * streamed from the content in memory or from the files. The SHA-256 digest of the archive is computed while it is written.
+ *
+ * The entries use the POSIX ustar format, and a PAX extended header is added for the names that are longer than 100 bytes
+ * or for the sizes that don't fit into the header. All the entries have the same mode and owner (uid and gid 0), so the
+ * archive only depends on the names and contents of the entries, on their order and on the given modification time.
+ *
+ * The archive is only complete once {@link #finish()} is called. Closing the writer before, for example because an entry
+ * could not be added, deletes the partial archive.
+ */
+public final class TarballWriter implements Closeable {
+
+    public static final int FILE_MODE = 0100644;
+
+    private static final int BLOCK_SIZE = 512;
+    private static final int NAME_LENGTH = 100;
+    private static final long MAX_SIZE = 077777777777L;
+    private static final char FILE_TYPE = '0';
+    private static final char PAX_HEADER_TYPE = 'x';
+    private static final String PAX_HEADERS_FOLDER = "./PaxHeaders.X/";
+    private static final byte[] MAGIC = "ustar\u000000".getBytes(StandardCharsets.US_ASCII);
+
+    private final MessageDigest digest = DigestUtils.newSha256();
+    private final Path file;
+    private final OutputStream out;
+    private final long modificationTime;
+    private final Set<String> names = new HashSet<>();
+    private String sha256;
+
+    /**
+     * @param file the archive to write.
+     * @param gzip whether to compress the archive with gzip.
+     * @param compressionLevel the gzip compression level, from 0 to 9, or -1 for the default level.
+     * @param compressionThreads the number of threads compressing the archive in parallel.
+     * @param modificationTime the modification time of the entries, in milliseconds since the epoch.
+     */
+    public TarballWriter(Path file, boolean gzip, int compressionLevel, int compressionThreads, long modificationTime)
+            throws IOException {
+        this.file = file;
+        OutputStream os = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(file)), digest);
+        this.out = gzip ? ParallelGzipOutputStream.create(os, compressionLevel, compressionThreads) : os;
+        this.modificationTime = TimeUnit.MILLISECONDS.toSeconds(modificationTime);
+    }
+
+    /**
+     * Adds a file whose content is in memory.
+     */
+    public void addFile(String name, byte[] content) throws IOException {
+        writeHeader(name, content.length);
+        out.write(content);
+        writePadding(content.length);
+    }
+
+    /**
+     * Adds a file whose content is in memory.
+     */
+    public void addFile(String name, ByteArrayOutputStream content) throws IOException {
+        writeHeader(name, content.size());
+        content.writeTo(out);
+        writePadding(content.size());
+    }
+
+    /**
+     * Adds a file whose content is streamed from the given path.
+     */
+    public void addFile(String name, Path file) throws IOException {
+        long size = Files.size(file);
+        writeHeader(name, size);
+        long copied = Files.copy(file, out);
+        if (copied != size) {
+            throw new IOException("The file '" + file + "' changed while it was added to the archive");
+        }
+
+        writePadding(size);
+    }
+
+    /**
+     * @return whether a file with the given name was already added.
+     */
+    public boolean hasFile(String name) {
+        return names.contains(name);
+    }
+
+    /**
+     * @return the SHA-256 digest of the archive as written to the disk, once the archive has been finished.
+     */
+    public String getSha256() {
+        return sha256;
+    }
+
+    /**
+     * Writes the end of the archive, which is marked by two empty blocks, and closes the file.
+     */
+    public void finish() throws IOException {
+        if (sha256 == null) {
+            out.write(new byte[BLOCK_SIZE * 2]);
+            out.close();
+            sha256 = DigestUtils.toHex(digest.digest());
+        }
+    }
+
+    /**
+     * Closes the file and deletes it if the archive was not finished.
+     */
+    @Override
+    public void close() throws IOException {
+        if (sha256 == null) {
+            try {
+                out.close();
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private void writeHeader(String name, long size) throws IOException {
+        if (!names.add(name)) {
+            throw new IOException("The archive already has a file named '" + name + "'");
+        }
+
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        StringBuilder paxRecords = new StringBuilder();
+        if (nameBytes.length > NAME_LENGTH) {
+            appendPaxRecord(paxRecords, "path", name);
+        }
+
+        if (size > MAX_SIZE) {
+            appendPaxRecord(paxRecords, "size", String.valueOf(size));
+        }
+
+        if (paxRecords.length() > 0) {
+            byte[] records = paxRecords.toString().getBytes(StandardCharsets.UTF_8);
+            out.write(header(truncate((PAX_HEADERS_FOLDER + name).getBytes(StandardCharsets.UTF_8)), records.length,
+                    PAX_HEADER_TYPE));
+            out.write(records);
+            writePadding(records.length);
+        }
+
+        out.write(header(truncate(nameBytes), Math.min(size, MAX_SIZE), FILE_TYPE));
+    }
+
+    private byte[] header(byte[] name, long size, char type) {
+        byte[] header = new byte[BLOCK_SIZE];
+        System.arraycopy(name, 0, header, 0, name.length);
+        writeOctal(header, 100, 8, FILE_MODE);
+        writeOctal(header, 108, 8, 0);
+        writeOctal(header, 116, 8, 0);
+        writeOctal(header, 124, 12, size);
+        writeOctal(header, 136, 12, modificationTime);
+        header[156] = (byte) type;
+        System.arraycopy(MAGIC, 0, header, 257, MAGIC.length);
+
+        // the checksum is computed with the checksum field filled with spaces
+        for (int index = 148; index < 156; index++) {
+            header[index] = ' ';
+        }
+
+        long checksum = 0;
+        for (byte value : header) {
+            checksum += value & 0xFF;
+        }
+
+        writeOctal(header, 148, 7, checksum);
+        return header;
+    }
+
+    private void writePadding(long size) throws IOException {
+        int remainder = (int) (size % BLOCK_SIZE);
+        if (remainder > 0) {
+            out.write(new byte[BLOCK_SIZE - remainder]);
+        }
+    }
+
+    /**
+     * Writes the value as octal digits padded with zeros, followed by a NUL character.
+     */
+    private static void writeOctal(byte[] header, int offset, int length, long value) {
+        String octal = Long.toOctalString(value);
+        int digits = length - 1;
+        int padding = digits - octal.length();
+        for (int index = 0; index < digits; index++) {
+            header[offset + index] = (byte) (index < padding ? '0' : octal.charAt(index - padding));
+        }
+
+        header[offset + digits] = 0;
+    }
+
+    /**
+     * @return the first 100 bytes of the name, without the bytes of a UTF-8 character that would be cut.
+     */
+    private static byte[] truncate(byte[] name) {
+        if (name.length <= NAME_LENGTH) {
+            return name;
+        }
+
+        int length = NAME_LENGTH;
+        // the first byte that is left out continues the character of the previous ones
+        while (length > 0 && (name[length] & 0xC0) == 0x80) {
+            length--;
+        }
+
+        byte[] truncated = new byte[length];
+        System.arraycopy(name, 0, truncated, 0, length);
+        return truncated;
+    }
+
+    /**
+     * A PAX record is `<length> <key>=<value>\n`, where the length includes the length digits themselves.
+     */
+    private static void appendPaxRecord(StringBuilder records, String key, String value) {
+        int length = key.getBytes(StandardCharsets.UTF_8).length + value.getBytes(StandardCharsets.UTF_8).length + 3;
+        int total = length + String.valueOf(length).length();
+        if (String.valueOf(total).length() > String.valueOf(length).length()) {
+            total++;
+        }
+
+        records.append(total).append(' ').append(key).append('=').append(value).append('\n');
+    }
+}
@@ -1,22 +1,35 @@
 package io.quarkiverse.helm.deployment.utils;
 
+import java.util.AbstractMap;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import io.dekorate.ConfigReference;
 import io.dekorate.utils.Strings;
 
+/**
+ * Values of a single Helm chart. The mutable values (maps and lists) are copied, so the values that are shared among
+ * charts like the ones from the configuration are never modified by the generation of a chart.
+ */
 public class ValuesHolder {
-    private final Map<String, Object> prodValues = new HashMap<>();
+    private static final String PROD = "";
+
+    private final Map<String, Object> prodValues = new LinkedHashMap<>();
     private final Map<String, Map<String, Object>> valuesByProfile = new HashMap<>();
+    private final Map<String, SuffixIndex> suffixIndexByProfile = new HashMap<>();
 
     public Map<String, Object> getProdValues() {
         return Collections.unmodifiableMap(prodValues);
     }
 
     public Map<String, Map<String, Object>> getValuesByProfile() {
-        return Collections.unmodifiableMap(valuesByProfile);
+        Map<String, Map<String, Object>> values = new HashMap<>();
+        valuesByProfile.forEach((profile, valuesInProfile) -> values.put(profile,
+                Collections.unmodifiableMap(valuesInProfile)));
+        return Collections.unmodifiableMap(values);
     }
 
     public void put(String property, ConfigReference value) {
@@ -24,27 +37,123 @@ public class ValuesHolder {
     }
 
     public void put(String property, Object value, String profile) {
-        get(profile).put(property, value);
+        Map<String, Object> values = values(profile);
+        index(values, property, profile);
+        values.put(property, MapUtils.copyOf(value));
     }
 
     public void putIfAbsent(String property, Object value, String profile) {
-        get(profile).putIfAbsent(property, value);
+        Map<String, Object> values = values(profile);
+        index(values, property, profile);
+        values.putIfAbsent(property, MapUtils.copyOf(value));
     }
 
     public void put(String property, Object value) {
-        prodValues.put(property, value);
+        index(prodValues, property, null);
+        prodValues.put(property, MapUtils.copyOf(value));
+    }
+
+    /**
+     * @return the first value of the profile, in insertion order, whose property ends with the suffix. If there is none,
+     *         it returns null.
+     */
+    public Map.Entry<String, Object> getBySuffix(String suffix, String profile) {
+        String property = getSuffixIndex(profile).findFirst(suffix);
+        if (property == null) {
+            return null;
+        }
+
+        return new AbstractMap.SimpleImmutableEntry<>(property, values(profile).get(property));
     }
 
+    /**
+     * @return the values of the profile, in insertion order. The values can only be modified using this holder.
+     */
     public Map<String, Object> get(String profile) {
-        Map<String, Object> values = prodValues;
-        if (Strings.isNotNullOrEmpty(profile)) {
-            values = valuesByProfile.get(profile);
-            if (values == null) {
-                values = new HashMap<>();
-                valuesByProfile.put(profile, values);
+        return Collections.unmodifiableMap(values(profile));
+    }
+
+    private Map<String, Object> values(String profile) {
+        if (Strings.isNullOrEmpty(profile)) {
+            return prodValues;
+        }
+
+        return valuesByProfile.computeIfAbsent(profile, p -> new LinkedHashMap<>());
+    }
+
+    private void index(Map<String, Object> values, String property, String profile) {
+        if (!values.containsKey(property)) {
+            getSuffixIndex(profile).add(property);
+        }
+    }
+
+    private SuffixIndex getSuffixIndex(String profile) {
+        return suffixIndexByProfile.computeIfAbsent(Strings.defaultIfEmpty(profile, PROD), p -> new SuffixIndex());
+    }
+
+    /**
+     * Trie of the reversed properties, where every node keeps the first property added below it. As the properties are
+     * added in insertion order and never removed, the first property that ends with a suffix is found by walking the
+     * suffix once.
+     */
+    private static class SuffixIndex {
+        private final Node root = new Node();
+
+        void add(String property) {
+            Node node = root;
+            node.setFirst(property);
+            for (int index = property.length() - 1; index >= 0; index--) {
+                node = node.getOrAddChild(property.charAt(index));
+                node.setFirst(property);
             }
         }
 
-        return values;
+        String findFirst(String suffix) {
+            Node node = root;
+            for (int index = suffix.length() - 1; index >= 0 && node != null; index--) {
+                node = node.getChild(suffix.charAt(index));
+            }
+
+            return node == null ? null : node.first;
+        }
+    }
+
+    private static class Node {
+        private static final char[] NO_CHARACTERS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] characters = NO_CHARACTERS;
+        private Node[] children = NO_CHILDREN;
+        private String first;
+
+        void setFirst(String property) {
+            if (first == null) {
+                first = property;
+            }
+        }
+
+        Node getChild(char character) {
+            for (int index = 0; index < characters.length; index++) {
+                if (characters[index] == character) {
+                    return children[index];
+                }
+            }
+
+            return null;
+        }
+
+        Node getOrAddChild(char character) {
+            Node child = getChild(character);
+            if (child == null) {
+                // most nodes have a single child
+                child = new Node();
+                characters = Arrays.copyOf(characters, characters.length + 1);
+                characters[characters.length - 1] = character;
+                children = Arrays.copyOf(children, children.length + 1);
+                children[children.length - 1] = child;
+            }
+
+            return child;
+        }
     }
 }
@@ -1,6 +1,10 @@
 package io.quarkiverse.helm.deployment.utils;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import io.github.yamlpath.YamlExpressionParser;
@@ -12,23 +16,90 @@ public final class YamlExpressionParserUtils {
     public static final String START_EXPRESSION_TOKEN = ":START:";
     public static final String END_EXPRESSION_TOKEN = ":END:";
 
+    private static final Map<String, String> ADAPTED_EXPRESSIONS = new ConcurrentHashMap<>();
+
     private YamlExpressionParserUtils() {
 
     }
 
+    /**
+     * Removes the adapted expressions, so nothing is kept from one build to the next.
+     */
+    public static void clearCache() {
+        ADAPTED_EXPRESSIONS.clear();
+    }
+
     public static void set(YamlExpressionParser parser, String path, String expression) {
-        parser.write(path, adaptExpression(expression));
+        set(parser, new HashMap<>(), path, expression);
+    }
+
+    /**
+     * @param filteredParsers the parsers of the resources that match a root filter, to reuse them for all the paths of the
+     *        same parser that start with this filter.
+     */
+    public static void set(YamlExpressionParser parser, Map<String, YamlExpressionParser> filteredParsers, String path,
+            String expression) {
+        YamlExpressionParser matching = matching(parser, filteredParsers, path);
+        if (matching != null) {
+            matching.write(path, adaptExpression(expression));
+        }
     }
 
     public static Object readAndSet(YamlExpressionParser parser, String path, String expression) {
-        Set<Object> found = parser.readAndReplace(path, adaptExpression(expression));
+        return readAndSet(parser, new HashMap<>(), path, expression);
+    }
+
+    /**
+     * @param filteredParsers the parsers of the resources that match a root filter, to reuse them for all the paths of the
+     *        same parser that start with this filter.
+     */
+    public static Object readAndSet(YamlExpressionParser parser, Map<String, YamlExpressionParser> filteredParsers,
+            String path, String expression) {
+        YamlExpressionParser matching = matching(parser, filteredParsers, path);
+        if (matching == null) {
+            return null;
+        }
+
+        Set<Object> found = matching.readAndReplace(path, adaptExpression(expression));
         return found.stream().findFirst().orElse(null);
     }
 
+    /**
+     * Creating a parser loads its processors using the service loader, so the parser of the resources that match a root
+     * filter is created only once. The resources are not filtered again: the values written by the parsers are expressions,
+     * so they never make a resource match a filter that it didn't match before.
+     *
+     * @return the parser with only the resources that may match the path, or null if there is none.
+     */
+    private static YamlExpressionParser matching(YamlExpressionParser parser,
+            Map<String, YamlExpressionParser> filteredParsers, String path) {
+        List<Map<Object, Object>> resources = parser.getResources();
+        if (resources.isEmpty()) {
+            return null;
+        }
+
+        CompiledYamlPath compiled = CompiledYamlPath.compile(path);
+        if (compiled.getRootFilter() == null) {
+            return parser;
+        }
+
+        // the filters without matching resources are not cached, but evaluating them again is cheap
+        return filteredParsers.computeIfAbsent(compiled.getRootFilter(), filter -> {
+            List<Map<Object, Object>> matching = compiled.filter(resources);
+            if (matching.isEmpty()) {
+                return null;
+            } else if (matching.size() == resources.size()) {
+                return parser;
+            }
+
+            return new YamlExpressionParser(matching);
+        });
+    }
+
     private static String adaptExpression(String expression) {
-        return START_EXPRESSION_TOKEN +
-                expression.replaceAll(Pattern.quote(System.lineSeparator()), SEPARATOR_TOKEN)
+        return ADAPTED_EXPRESSIONS.computeIfAbsent(expression, e -> START_EXPRESSION_TOKEN +
+                e.replaceAll(Pattern.quote(System.lineSeparator()), SEPARATOR_TOKEN)
                         .replaceAll(Pattern.quote("\""), SEPARATOR_QUOTES)
-                + END_EXPRESSION_TOKEN;
+                + END_EXPRESSION_TOKEN);
     }
 }
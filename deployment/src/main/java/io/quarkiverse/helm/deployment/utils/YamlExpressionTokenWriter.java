@@ -0,0 +1,282 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.END_EXPRESSION_TOKEN;
+import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.SEPARATOR_QUOTES;
+import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.SEPARATOR_TOKEN;
+import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.START_EXPRESSION_TOKEN;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writer that adapts the serialized resources to the Helm template format while they are being written. In order:
+ * <ol>
+ * <li>it removes the quotes before `{{` and after `}}`,</li>
+ * <li>it removes the `:START:` and `:END:` tokens (including the surrounding quotes),</li>
+ * <li>it replaces the `:DOUBLE_QUOTES` token by `"` and the `:LINE_SEPARATOR:` token by the line separator,</li>
+ * <li>and it removes the escape characters that Jackson adds when splitting long strings.</li>
+ * </ol>
+ *
+ * Every character is processed only once by a chain of replacers that only buffer the characters of a partial match, so
+ * the result is exactly the same as the one of the equivalent `String.replaceAll` calls, but without any regular
+ * expression nor intermediate copy of the content.
+ */
+public class YamlExpressionTokenWriter extends Writer {
+
+    private static final String START_TAG = "{{";
+    private static final String END_TAG = "}}";
+    private static final String QUOTE = "\"";
+    private static final String EMPTY = "";
+
+    private final Writer out;
+    private final Output output;
+    private final TokenReplacer[] replacers;
+    private final JacksonEscapeRemover escapeRemover;
+    private final CharConsumer head;
+    private boolean idle = true;
+
+    public YamlExpressionTokenWriter(Writer out) {
+        this.out = out;
+        this.output = new Output(out);
+        this.escapeRemover = new JacksonEscapeRemover(output);
+        this.replacers = new TokenReplacer[6];
+        replacers[5] = new TokenReplacer(SEPARATOR_TOKEN, System.lineSeparator(), escapeRemover);
+        replacers[4] = new TokenReplacer(SEPARATOR_QUOTES, QUOTE, replacers[5]);
+        replacers[3] = new TokenReplacer(END_EXPRESSION_TOKEN + QUOTE, EMPTY, replacers[4]);
+        replacers[2] = new TokenReplacer(QUOTE + START_EXPRESSION_TOKEN, EMPTY, replacers[3]);
+        replacers[1] = new TokenReplacer(END_TAG + QUOTE, END_TAG, replacers[2]);
+        replacers[0] = new TokenReplacer(QUOTE + START_TAG, START_TAG, replacers[1]);
+        this.head = replacers[0];
+    }
+
+    /**
+     * @return the content adapted to the Helm template format.
+     */
+    public static String rewrite(String content) {
+        StringWriter result = new StringWriter(content.length());
+        try (Writer writer = new YamlExpressionTokenWriter(result)) {
+            writer.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return result.toString();
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) throws IOException {
+        for (int index = offset; index < offset + length; index++) {
+            accept(buffer[index]);
+        }
+    }
+
+    @Override
+    public void write(String str, int offset, int length) throws IOException {
+        for (int index = offset; index < offset + length; index++) {
+            accept(str.charAt(index));
+        }
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        accept((char) c);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        output.flush();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        head.finish();
+        output.flush();
+        out.close();
+    }
+
+    private void accept(char c) throws IOException {
+        if (idle && !canStartToken(c)) {
+            // no replacer has a partial match and the character can't start a new one
+            output.accept(c);
+        } else {
+            head.accept(c);
+            idle = isIdle();
+        }
+    }
+
+    private boolean isIdle() {
+        for (TokenReplacer replacer : replacers) {
+            if (replacer.matched > 0) {
+                return false;
+            }
+        }
+
+        return escapeRemover.escape.length() == 0;
+    }
+
+    /**
+     * @return whether the character is the first one of any of the tokens.
+     */
+    private static boolean canStartToken(char c) {
+        return c == '"' || c == '}' || c == ':' || c == '\\';
+    }
+
+    private interface CharConsumer {
+        void accept(char c) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * Replaces all the occurrences of a token from left to right, like `String.replace`. It only keeps the number of
+     * characters of the token that have been matched so far.
+     */
+    private static class TokenReplacer implements CharConsumer {
+        private final char[] token;
+        private final String replacement;
+        private final CharConsumer next;
+        private int matched;
+
+        TokenReplacer(String token, String replacement, CharConsumer next) {
+            this.token = token.toCharArray();
+            this.replacement = replacement;
+            this.next = next;
+        }
+
+        @Override
+        public void accept(char c) throws IOException {
+            while (token[matched] != c && matched > 0) {
+                // The partial match can't be completed: the first character is not part of the token, so the match
+                // needs to start again from the next one.
+                int partial = matched;
+                matched = 0;
+                next.accept(token[0]);
+                for (int index = 1; index < partial; index++) {
+                    accept(token[index]);
+                }
+            }
+
+            if (token[matched] == c) {
+                matched++;
+                if (matched == token.length) {
+                    matched = 0;
+                    for (int index = 0; index < replacement.length(); index++) {
+                        next.accept(replacement.charAt(index));
+                    }
+                }
+            } else {
+                next.accept(c);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            for (int index = 0; index < matched; index++) {
+                next.accept(token[index]);
+            }
+
+            matched = 0;
+            next.finish();
+        }
+    }
+
+    /**
+     * Removes the escape characters that Jackson adds when splitting long strings: a backslash followed by a new line, any
+     * number of blank characters and another backslash.
+     */
+    private static class JacksonEscapeRemover implements CharConsumer {
+        private static final char BACKSLASH = '\\';
+        private static final char NEW_LINE = '\n';
+
+        private final Output out;
+        private final StringBuilder escape = new StringBuilder();
+
+        JacksonEscapeRemover(Output out) {
+            this.out = out;
+        }
+
+        @Override
+        public void accept(char c) throws IOException {
+            if (escape.length() == 0) {
+                if (c == BACKSLASH) {
+                    escape.append(c);
+                } else {
+                    out.accept(c);
+                }
+            } else if (escape.length() == 1) {
+                if (c == NEW_LINE) {
+                    escape.append(c);
+                } else if (c == BACKSLASH) {
+                    // the new backslash might start an escape sequence
+                    out.accept(BACKSLASH);
+                } else {
+                    flushEscape(c);
+                }
+            } else if (c == BACKSLASH) {
+                escape.setLength(0);
+            } else if (isWhitespace(c)) {
+                escape.append(c);
+            } else {
+                flushEscape(c);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.append(escape);
+            escape.setLength(0);
+        }
+
+        private void flushEscape(char c) throws IOException {
+            out.append(escape);
+            out.accept(c);
+            escape.setLength(0);
+        }
+
+        /**
+         * @return whether the character is part of the `\s` regular expression class.
+         */
+        private static boolean isWhitespace(char c) {
+            return c == ' ' || c == '\t' || c == NEW_LINE || c == '\u000B' || c == '\f' || c == '\r';
+        }
+    }
+
+    /**
+     * Buffers the adapted content, so the underlying writer is only called once per chunk instead of once per character.
+     */
+    private static class Output {
+        private static final int BUFFER_SIZE = 8192;
+
+        private final Writer out;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int size;
+
+        Output(Writer out) {
+            this.out = out;
+        }
+
+        void accept(char c) throws IOException {
+            if (size == buffer.length) {
+                flush();
+            }
+
+            buffer[size++] = c;
+        }
+
+        void append(CharSequence chars) throws IOException {
+            for (int index = 0; index < chars.length(); index++) {
+                accept(chars.charAt(index));
+            }
+        }
+
+        void flush() throws IOException {
+            if (size > 0) {
+                out.write(buffer, 0, size);
+                size = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package io.quarkiverse.helm.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.Authenticator;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.quarkiverse.helm.deployment.utils.DigestUtils;
+
+class HelmChartUploaderTest {
+
+    private static final long LARGE_CHART_SIZE = 500L * 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicReference<String> receivedMethod = new AtomicReference<>();
+    private final AtomicReference<String> receivedContentLength = new AtomicReference<>();
+    private final List<String> receivedAuthorizations = new CopyOnWriteArrayList<>();
+    private final List<String> receivedRequests = new CopyOnWriteArrayList<>();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    // the content of the index.yaml file of ChartMuseum, and the headers of the charts of Nexus and Artifactory
+    private final AtomicReference<String> index = new AtomicReference<>();
+    private final Map<String, String> chartHeaders = new ConcurrentHashMap<>();
+    private final AtomicInteger responseCode = new AtomicInteger(201);
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            receivedRequests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            if ("GET".equals(exchange.getRequestMethod()) && index.get() != null) {
+                byte[] content = index.get().getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, content.length);
+                exchange.getResponseBody().write(content);
+                exchange.close();
+                return;
+            } else if ("HEAD".equals(exchange.getRequestMethod()) && !chartHeaders.isEmpty()) {
+                chartHeaders.forEach((name, value) -> exchange.getResponseHeaders().add(name, value));
+                // the server drops the connection after the response to a HEAD request without telling the client, so
+                // the next request would be sent on a closed connection
+                exchange.getResponseHeaders().add("Connection", "close");
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+                return;
+            }
+
+            receivedMethod.set(exchange.getRequestMethod());
+            receivedContentLength.set(exchange.getRequestHeaders().getFirst("Content-Length"));
+            receivedAuthorizations.add(String.valueOf(exchange.getRequestHeaders().getFirst("Authorization")));
+            byte[] buffer = new byte[64 * 1024];
+            long count = 0;
+            try (InputStream is = exchange.getRequestBody()) {
+                int length;
+                while ((length = is.read(buffer)) != -1) {
+                    count += length;
+                }
+            }
+
+            receivedBytes.set(count);
+            if (responseCode.get() >= 300) {
+                byte[] content = "Chart rejected".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(responseCode.get(), content.length);
+                exchange.getResponseBody().write(content);
+            } else {
+                exchange.sendResponseHeaders(responseCode.get(), -1);
+            }
+
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        HttpClientHelmChartUploader.clearClients();
+    }
+
+    @Tag("large-upload")
+    @ParameterizedTest
+    @EnumSource(HelmRepositoryClient.class)
+    void shouldStreamLargeChartWithFixedLength(HelmRepositoryClient client) throws IOException {
+        // the heap of the tests is smaller than the chart, so it would fail if the chart was buffered in memory
+        File tarball = tempDir.resolve("large-chart-1.0.0.tar.gz").toFile();
+        try (RandomAccessFile file = new RandomAccessFile(tarball, "rw")) {
+            file.setLength(LARGE_CHART_SIZE);
+        }
+
+        boolean pushed = HelmChartUploader.pushToHelmRepository(tarball, "large-chart", "1.0.0",
+                repository(HelmRepositoryType.ARTIFACTORY, "/artifactory/helm", client));
+
+        assertTrue(pushed);
+        assertEquals("PUT", receivedMethod.get());
+        assertEquals(String.valueOf(LARGE_CHART_SIZE), receivedContentLength.get());
+        assertEquals(LARGE_CHART_SIZE, receivedBytes.get());
+    }
+
+    @ParameterizedTest
+    @EnumSource(HelmRepositoryClient.class)
+    void shouldPostChartToChartMuseum(HelmRepositoryClient client) throws IOException {
+        Path tarball = tempDir.resolve("chart-1.0.0.tar.gz");
+        Files.write(tarball, new byte[] { 1, 2, 3 });
+
+        boolean pushed = HelmChartUploader.pushToHelmRepository(tarball.toFile(), "chart", "1.0.0",
+                repository(HelmRepositoryType.CHARTMUSEUM, "/api/charts", client));
+
+        assertTrue(pushed);
+        assertEquals("POST", receivedMethod.get());
+        assertEquals(3, receivedBytes.get());
+    }
+
+    @ParameterizedTest
+    @EnumSource(HelmRepositoryClient.class)
+    void shouldSendBasicCredentialsWithEveryRequest(HelmRepositoryClient client) throws IOException {
+        Path tarball = tempDir.resolve("chart-1.0.0.tar.gz");
+        Files.write(tarball, new byte[] { 1, 2, 3 });
+        HelmRepository repository = repository(HelmRepositoryType.NEXUS, "/repository/helm", client);
+        repository.username = Optional.of("user");
+        repository.password = Optional.of("password");
+        repository.skipIfUnchanged = true;
+
+        boolean pushed = HelmChartUploader.pushToHelmRepository(tarball.toFile(), "chart", "1.0.0", repository);
+
+        assertTrue(pushed);
+        // the lookup of the chart and the push, without being challenged first
+        assertEquals(List.of("Basic dXNlcjpwYXNzd29yZA==", "Basic dXNlcjpwYXNzd29yZA=="), receivedAuthorizations);
+        assertNull(Authenticator.getDefault());
+    }
+
+    @ParameterizedTest
+    @EnumSource(HelmRepositoryClient.class)
+    void shouldSendBearerToken(HelmRepositoryClient client) throws IOException {
+        Path tarball = tempDir.resolve("chart-1.0.0.tar.gz");
+        Files.write(tarball, new byte[] { 1, 2, 3 });
+        HelmRepository repository = repository(HelmRepositoryType.CHARTMUSEUM, "/api/charts", client);
+        repository.token = Optional.of("my-token");
+
+        boolean pushed = HelmChartUploader.pushToHelmRepository(tarball.toFile(), "chart", "1.0.0", repository);
+
+        assertTrue(pushed);
+        assertEquals(List.of("Bearer my-token"), receivedAuthorizations);
+    }
+
+    @ParameterizedTest
+    @EnumSource(HelmRepositoryClient.class)
+    void shouldSkipPushWhenChartMuseumIndexHasSameDigest(HelmRepositoryClient client) throws IOException {
+        Path tarball = writeChart();
+        index.set(index(DigestUtils.sha256(tarball)));
+
+        boolean pushed = HelmChartUploader.pushToHelmRepository(tarball.toFile(), "chart", "1.0.0",
+                skipIfUnchanged(repository(HelmRepositoryType.CHARTMUSEUM, "/api/charts", client)));
+
+        assertFalse(pushed);
+        assertEquals(List.of("GET /index.yaml"), receivedRequests);
+    }
+
+    @ParameterizedTest
+    @EnumSource(HelmRepositoryClient.class)
+    void shouldPushWhenChartMuseumIndexHasDifferentDigest(HelmRepositoryClient client) throws IOException {
+        Path tarball = writeChart();
+        index.set(index(DigestUtils.sha256(new byte[] { 4, 5, 6 })));
+
+        boolean pushed = HelmChartUploader.pushToHelmRepository(tarball.toFile(), "chart", "1.0.0",
+                skipIfUnchanged(repository(HelmRepositoryType.CHARTMUSEUM, "/api/charts", client)));
+
+        assertTrue(pushed);
+        assertEquals(List.of("GET /index.yaml", "POST /api/charts"), receivedRequests);
+        assertEquals(3, receivedBytes.get());
+    }
+
+    @ParameterizedTest
+    @EnumSource(HelmRepositoryClient.class)
+    void shouldSkipPushWhenArtifactoryChecksumIsSame(HelmRepositoryClient client) throws IOException {
+        Path tarball = writeChart();
+        chartHeaders.put("X-Checksum-Sha256", DigestUtils.sha256(tarball));
+
+        boolean pushed = HelmChartUploader.pushToHelmRepository(tarball.toFile(), "chart", "1.0.0",
+                skipIfUnchanged(repository(HelmRepositoryType.ARTIFACTORY, "/artifactory/helm", client)));
+
+        assertFalse(pushed);
+        assertEquals(List.of("HEAD /artifactory/helm/chart-1.0.0.tar.gz"), receivedRequests);
+    }
+
+    @ParameterizedTest
+    @EnumSource(HelmRepositoryClient.class)
+    void shouldSkipPushWhenNexusChecksumIsSame(HelmRepositoryClient client) throws IOException {
+        Path tarball = writeChart();
+        chartHeaders.put("ETag", "\"{SHA1{" + DigestUtils.sha1(tarball) + "}}\"");
+
+        boolean pushed = HelmChartUploader.pushToHelmRepository(tarball.toFile(), "chart", "1.0.0",
+                skipIfUnchanged(repository(HelmRepositoryType.NEXUS, "/repository/helm", client)));
+
+        assertFalse(pushed);
+        assertEquals(List.of("HEAD /repository/helm/chart-1.0.0.tgz"), receivedRequests);
+    }
+
+    @ParameterizedTest
+    @EnumSource(HelmRepositoryClient.class)
+    void shouldPushWhenChecksumIsDifferent(HelmRepositoryClient client) throws IOException {
+        Path tarball = writeChart();
+        chartHeaders.put("X-Checksum-Sha256", DigestUtils.sha256(new byte[] { 4, 5, 6 }));
+
+        boolean pushed = HelmChartUploader.pushToHelmRepository(tarball.toFile(), "chart", "1.0.0",
+                skipIfUnchanged(repository(HelmRepositoryType.ARTIFACTORY, "/artifactory/helm", client)));
+
+        assertTrue(pushed);
+        assertEquals(List.of("HEAD /artifactory/helm/chart-1.0.0.tar.gz", "PUT /artifactory/helm/chart-1.0.0.tar.gz"),
+                receivedRequests);
+        assertEquals(3, receivedBytes.get());
+    }
+
+    @ParameterizedTest
+    @EnumSource(HelmRepositoryClient.class)
+    void shouldFailWhenRepositoryRejectsChart(HelmRepositoryClient client) throws IOException {
+        Path tarball = writeChart();
+        responseCode.set(500);
+        HelmRepository repository = repository(HelmRepositoryType.CHARTMUSEUM, "/api/charts", client);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> HelmChartUploader.pushToHelmRepository(tarball.toFile(), "chart", "1.0.0", repository));
+
+        assertEquals("Couldn't upload the Helm chart to the Helm repository: Chart rejected", e.getMessage());
+    }
+
+    @Test
+    void shouldOnlyRequestHttp2OverTls() {
+        HelmRepository repository = repository(HelmRepositoryType.CHARTMUSEUM, "/api/charts", HelmRepositoryClient.HTTP_CLIENT);
+        assertEquals(HttpClient.Version.HTTP_1_1, HttpClientHelmChartUploader.newClient(repository).version());
+
+        repository.url = Optional.of("https://localhost/api/charts");
+        assertEquals(HttpClient.Version.HTTP_2, HttpClientHelmChartUploader.newClient(repository).version());
+    }
+
+    @Test
+    void shouldReuseTheClientAndItsConnectionForAllThePushesOfTheBuild() throws IOException {
+        Path tarball = writeChart();
+        HelmRepository repository = repository(HelmRepositoryType.CHARTMUSEUM, "/api/charts", HelmRepositoryClient.HTTP_CLIENT);
+        HttpClient client = HttpClientHelmChartUploader.getClient(repository);
+
+        assertTrue(HelmChartUploader.pushToHelmRepository(tarball.toFile(), "chart", "1.0.0", repository));
+        assertTrue(HelmChartUploader.pushToHelmRepository(tarball.toFile(), "chart", "1.0.0", repository));
+
+        assertEquals(List.of("POST /api/charts", "POST /api/charts"), receivedRequests);
+        assertEquals(1, clientPorts.size());
+        assertSame(client, HttpClientHelmChartUploader.getClient(repository));
+
+        // the next build has its own client
+        HttpClientHelmChartUploader.clearClients();
+        assertNotSame(client, HttpClientHelmChartUploader.getClient(repository));
+    }
+
+    private Path writeChart() throws IOException {
+        Path tarball = tempDir.resolve("chart-1.0.0.tar.gz");
+        Files.write(tarball, new byte[] { 1, 2, 3 });
+        return tarball;
+    }
+
+    private static String index(String digest) {
+        return "apiVersion: v1\n"
+                + "entries:\n"
+                + "  chart:\n"
+                + "  - version: 0.9.0\n"
+                + "    digest: " + DigestUtils.sha256(new byte[0]) + "\n"
+                + "  - version: 1.0.0\n"
+                + "    digest: " + digest + "\n";
+    }
+
+    private static HelmRepository skipIfUnchanged(HelmRepository repository) {
+        repository.skipIfUnchanged = true;
+        return repository;
+    }
+
+    private HelmRepository repository(HelmRepositoryType type, String path, HelmRepositoryClient client) {
+        HelmRepository repository = new HelmRepository();
+        repository.push = true;
+        repository.type = Optional.of(type);
+        repository.url = Optional.of("http://localhost:" + server.getAddress().getPort() + path);
+        repository.username = Optional.empty();
+        repository.password = Optional.empty();
+        repository.token = Optional.empty();
+        repository.deploymentTarget = Optional.empty();
+        repository.connectTimeout = Duration.ofSeconds(30);
+        repository.readTimeout = Duration.ofMinutes(5);
+        repository.client = client;
+        return repository;
+    }
+}
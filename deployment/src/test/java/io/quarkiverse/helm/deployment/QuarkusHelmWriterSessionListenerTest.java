@@ -0,0 +1,204 @@
+package io.quarkiverse.helm.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.dekorate.ConfigReference;
+import io.dekorate.Session;
+import io.dekorate.helm.config.HelmChartConfig;
+import io.dekorate.helm.config.HelmChartConfigBuilder;
+import io.dekorate.project.Project;
+import io.quarkiverse.helm.deployment.utils.FileCopyUtils;
+
+class QuarkusHelmWriterSessionListenerTest {
+
+    private static final Path CHART = Paths.get("src", "test", "resources", "chart");
+    private static final String DEPLOYMENT = "(kind == Deployment && metadata.name == app)";
+    private static final String CONTAINER = DEPLOYMENT + ".spec.template.spec.containers.(name == app)";
+
+    @TempDir
+    Path output;
+
+    @Test
+    void shouldGenerateSameChartAsBaseline() throws IOException {
+        writeChart(new QuarkusHelmWriterSessionListener(), output);
+
+        // the expected files were generated by the writer before the templates were streamed
+        assertSameFiles(CHART.resolve("expected"), output);
+    }
+
+    @Test
+    void shouldKeepUserValuesSetToNull() {
+        Map<String, Object> userApp = new HashMap<>();
+        userApp.put("replicas", null);
+        userApp.put("resources", null);
+        Map<String, Object> user = new HashMap<>();
+        user.put("app", userApp);
+
+        Map<String, Object> generatedApp = new HashMap<>();
+        generatedApp.put("replicas", 1);
+        generatedApp.put("resources", Map.of("limits", Map.of("cpu", "1")));
+        generatedApp.put("image", "app:1.0");
+        QuarkusHelmWriterSessionListener.mergeIfAbsent(user, Map.of("app", generatedApp));
+
+        assertTrue(userApp.containsKey("replicas"));
+        assertNull(userApp.get("replicas"));
+        assertTrue(userApp.containsKey("resources"));
+        assertNull(userApp.get("resources"));
+        assertEquals("app:1.0", userApp.get("image"));
+    }
+
+    @Test
+    void shouldGenerateSameChartWithRedundantReferencesAsBaseline() throws IOException {
+        writeChart(new QuarkusHelmWriterSessionListener(), output, redundantValueReferences());
+
+        // the expected files were generated by the writer before the redundant references were skipped
+        assertSameFiles(CHART.resolve("expected-redundant"), output);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "tar.gz", "tar" })
+    void shouldArchiveTheGeneratedAndCopiedFiles(String extension) throws IOException {
+        Path input = output.resolve("input");
+        FileCopyUtils.copy(CHART.resolve("helm"), input, false);
+        Files.writeString(input.resolve("README.md"), "# my-chart\n");
+        Files.createDirectories(input.resolve("crds").resolve("v1"));
+        Files.writeString(input.resolve("crds").resolve("v1").resolve("crd.yaml"), "kind: CustomResourceDefinition\n");
+        Path chartOutput = output.resolve("output");
+
+        Map<String, String> generated = new QuarkusHelmWriterSessionListener().writeHelmFiles(Session.getSession(),
+                new Project(), helmConfig(true, extension), valueReferences(), input, chartOutput,
+                List.of(CHART.resolve("kubernetes.yml").toFile()));
+
+        Path tarball = chartOutput.resolve("my-chart-1.0.0." + extension);
+        assertTrue(generated.containsKey(tarball.toString()));
+        Map<String, byte[]> entries = new HashMap<>();
+        InputStream is = Files.newInputStream(tarball);
+        try (TarArchiveInputStream tar = new TarArchiveInputStream(extension.equals("tar") ? is : new GZIPInputStream(is))) {
+            TarArchiveEntry entry;
+            while ((entry = tar.getNextTarEntry()) != null) {
+                assertNull(entries.put(entry.getName(), tar.readAllBytes()), entry.getName());
+            }
+        }
+
+        // the generated files are added while they are written, and the copied files are read from the chart folder
+        List<String> files = listFiles(chartOutput.resolve("my-chart"));
+        assertTrue(files.contains(Paths.get("crds", "v1", "crd.yaml").toString()));
+        assertTrue(files.contains("README.md"));
+        assertEquals(files.size(), entries.size());
+        for (String file : files) {
+            String entry = "my-chart/" + file.replace(File.separatorChar, '/');
+            assertArrayEquals(Files.readAllBytes(chartOutput.resolve("my-chart").resolve(file)), entries.get(entry), entry);
+        }
+    }
+
+    /**
+     * Writes the chart of the manifests in `src/test/resources/chart` with value references, expressions and if statements
+     * on several resources of the same kinds.
+     */
+    static Map<String, String> writeChart(QuarkusHelmWriterSessionListener writer, Path output) {
+        return writeChart(writer, output, valueReferences());
+    }
+
+    static Map<String, String> writeChart(QuarkusHelmWriterSessionListener writer, Path output,
+            List<ConfigReference> valueReferences) {
+        return writer.writeHelmFiles(Session.getSession(), new Project(), helmConfig(false, "tar.gz"), valueReferences,
+                CHART.resolve("helm"), output, List.of(CHART.resolve("kubernetes.yml").toFile()));
+    }
+
+    static void assertSameFiles(Path expected, Path actual) throws IOException {
+        List<String> expectedFiles = listFiles(expected);
+        assertEquals(expectedFiles, listFiles(actual));
+        for (String file : expectedFiles) {
+            assertEquals(new String(Files.readAllBytes(expected.resolve(file)), StandardCharsets.UTF_8),
+                    new String(Files.readAllBytes(actual.resolve(file)), StandardCharsets.UTF_8), file);
+        }
+    }
+
+    private static List<String> listFiles(Path folder) throws IOException {
+        try (Stream<Path> files = Files.walk(folder)) {
+            return files.filter(Files::isRegularFile)
+                    .map(file -> folder.relativize(file).toString())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static HelmChartConfig helmConfig(boolean createTarFile, String extension) {
+        return new HelmChartConfigBuilder()
+                .withEnabled(true)
+                .withName("my-chart")
+                .withVersion("1.0.0")
+                .withApiVersion("v2")
+                .withCreateTarFile(createTarFile)
+                .withExtension(extension)
+                .withValuesRootAlias("app")
+                .withNotes(null)
+                .addNewExpression(DEPLOYMENT + ".spec.template.metadata.annotations.note",
+                        "{{ .Values.app.note | default \"a default note that is long enough to be split in several lines "
+                                + "by the YAML serializer of the templates\" }}")
+                .addNewExpression("(kind == Service).metadata.annotations.description",
+                        "{{- if .Values.app.description }}" + System.lineSeparator()
+                                + "{{ .Values.app.description | quote }}" + System.lineSeparator() + "{{- end }}")
+                .addNewAddIfStatement("serviceAccount.enabled", "ServiceAccount", "", true)
+                .addNewAddIfStatement("second.enabled", "", "second", false)
+                .build();
+    }
+
+    /**
+     * The same references repeated, with other references to the same paths and properties between them, so processing
+     * a reference again changes the paths that a reference in between changed.
+     */
+    static List<ConfigReference> redundantValueReferences() {
+        List<ConfigReference> references = new ArrayList<>(valueReferences());
+        references.add(new ConfigReference("type", new String[] { "(kind == Service && metadata.name == app).spec.type" }));
+        references.add(new ConfigReference("envs.BAR", new String[] { CONTAINER + ".env.(name == FOO).value" }));
+        references.add(new ConfigReference("replicas", new String[] { DEPLOYMENT + ".spec.replicas" }, 2, null, null));
+        references.add(new ConfigReference("port", new String[] { "(kind == Service).spec.ports.port" }, null,
+                "{{ .Values.app.otherPort }}", null));
+        references.addAll(valueReferences());
+        references.addAll(valueReferences());
+        return references;
+    }
+
+    private static List<ConfigReference> valueReferences() {
+        return Arrays.asList(
+                new ConfigReference("replicas", new String[] { DEPLOYMENT + ".spec.replicas" }, null, null, null),
+                new ConfigReference("replicas", new String[] { DEPLOYMENT + ".spec.replicas" }, null, null, null),
+                new ConfigReference("replicas", new String[] { DEPLOYMENT + ".spec.replicas" }, 1, null, "dev"),
+                new ConfigReference("image", new String[] { "(kind == Deployment).spec.template.spec.containers.image" }),
+                new ConfigReference("serviceType", new String[] { "(kind == Service && metadata.name == app).spec.type" }),
+                new ConfigReference("greeting", new String[] { CONTAINER + ".env.(name == GREETING).value" }),
+                new ConfigReference("envs.GREETING", new String[] { CONTAINER + ".env.(name == GREETING).value" }),
+                new ConfigReference("envs.FOO", new String[] { CONTAINER + ".env.(name == FOO).value" }),
+                new ConfigReference("notFound", new String[] { "metadata.not-found" }),
+                new ConfigReference("debug", new String[0], true, null, null),
+                new ConfigReference("port", new String[] { "(kind == Service).spec.ports.port" }, null,
+                        "{{ .Values.app.port | default 80 }}", null));
+    }
+}
@@ -0,0 +1,98 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class BuildTimePropertyMatcherTest {
+
+    private static final String BUILD_TIME_PROPERTIES = "/build-time-list";
+
+    /**
+     * The properties of the build time list, the properties below them and the ones around them are matched the same way
+     * as when every entry was checked with `String.matches`, `startsWith` and `equals`.
+     */
+    @Test
+    void shouldMatchSamePropertiesAsBefore() throws IOException {
+        List<String> entries = readBuildTimeList();
+        BuildTimePropertyMatcher matcher = BuildTimePropertyMatcher.fromResource(BUILD_TIME_PROPERTIES);
+
+        Set<String> names = new LinkedHashSet<>(List.of("quarkus.helm.name", "quarkus.http.port", "app.greeting",
+                "quarkus.kubernetes", "quarkus.datasource.\"my-ds\".db-kind", "quarkus.datasource..db-kind", "", "quarkus"));
+        for (String entry : entries) {
+            if (entry.startsWith("#")) {
+                continue;
+            }
+
+            for (String name : List.of(entry.replace("(.+)", "ds"), entry.replace("(.+)", "my.ds"))) {
+                names.add(name);
+                names.add(name + ".nested");
+                names.add(name + "-suffix");
+                names.add(name + "nested.property");
+                names.add("prefix." + name);
+                names.add(name.substring(0, name.length() - 1));
+            }
+        }
+
+        for (String name : names) {
+            assertEquals(isBuildTimeProperty(entries, name), matcher.matches(name), name);
+            // the results are cached
+            assertEquals(isBuildTimeProperty(entries, name), matcher.matches(name), name);
+        }
+    }
+
+    @Test
+    void shouldMatchTheThreeKindsOfEntries() {
+        BuildTimePropertyMatcher matcher = BuildTimePropertyMatcher.fromEntries(List.of(
+                "# comment", "", "  quarkus.package.type  ", "quarkus.kubernetes.", "quarkus.datasource.(.+).db-kind"));
+
+        assertTrue(matcher.matches("quarkus.package.type"));
+        assertFalse(matcher.matches("quarkus.package.type.nested"));
+        assertTrue(matcher.matches("quarkus.kubernetes.replicas"));
+        assertTrue(matcher.matches("quarkus.kubernetes.env.vars.foo"));
+        assertFalse(matcher.matches("quarkus.kubernetes"));
+        assertFalse(matcher.matches("quarkus.kubernetes-client.trust-certs"));
+        assertTrue(matcher.matches("quarkus.datasource.users.db-kind"));
+        assertFalse(matcher.matches("quarkus.datasource.db-kind"));
+        assertFalse(matcher.matches("# comment"));
+        assertFalse(BuildTimePropertyMatcher.empty().matches("quarkus.package.type"));
+    }
+
+    @Test
+    void shouldMatchTheDotsOfNamesAndPrefixesLiterally() {
+        BuildTimePropertyMatcher matcher = BuildTimePropertyMatcher.fromEntries(
+                List.of("quarkus.package.type", "quarkus.kubernetes."));
+
+        // the entries used to be regular expressions too, where the dots matched any character
+        assertFalse(matcher.matches("quarkus-package-type"));
+        assertFalse(matcher.matches("quarkus.kubernetes-"));
+    }
+
+    private static List<String> readBuildTimeList() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                BuildTimePropertyMatcherTest.class.getResourceAsStream(BUILD_TIME_PROPERTIES), StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    /**
+     * The check of the build time properties that was used before the entries were compiled.
+     */
+    private static boolean isBuildTimeProperty(List<String> buildProperties, String name) {
+        return buildProperties.stream().anyMatch(build -> name.matches(build) // It's a regular expression
+                || (build.endsWith(".") && name.startsWith(build)) // contains with
+                || name.equals(build)); // or it's equal to
+    }
+}
@@ -0,0 +1,109 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ChartFingerprintTest {
+
+    private static final String VALUES = "app:\n  replicas: 1\n";
+
+    @TempDir
+    Path tempDir;
+
+    private Path chart;
+    private Path values;
+    private Path crds;
+
+    @BeforeEach
+    void writeChart() throws IOException {
+        chart = tempDir.resolve("chart");
+        values = chart.resolve("values.yaml");
+        crds = chart.resolve("crds");
+        Files.createDirectories(crds);
+        Files.write(values, VALUES.getBytes(StandardCharsets.UTF_8));
+        Files.write(crds.resolve("crd.yaml"), "kind: CustomResourceDefinition\n".getBytes(StandardCharsets.UTF_8));
+
+        Map<String, String> generatedFiles = new HashMap<>();
+        generatedFiles.put(values.toString(), DigestUtils.sha256(values));
+        generatedFiles.put(crds.toString(), "");
+        // copied files have no digest
+        generatedFiles.put(crds.resolve("crd.yaml").toString(), null);
+        fingerprint().write(chart, generatedFiles);
+    }
+
+    @Test
+    void shouldReturnGeneratedFilesWhenUnchanged() throws IOException {
+        Optional<Map<String, String>> generatedFiles = fingerprint().getGeneratedFilesIfUnchanged(chart);
+
+        assertTrue(generatedFiles.isPresent());
+        assertEquals(3, generatedFiles.get().size());
+        assertEquals(DigestUtils.sha256(values), generatedFiles.get().get(values.toString()));
+        assertEquals(DigestUtils.sha256(crds.resolve("crd.yaml")),
+                generatedFiles.get().get(crds.resolve("crd.yaml").toString()));
+        assertNull(generatedFiles.get().get(crds.toString()));
+    }
+
+    @Test
+    void shouldDetectModifiedGeneratedFiles() throws IOException {
+        Files.write(values, "app:\n  replicas: 2\n".getBytes(StandardCharsets.UTF_8));
+
+        assertFalse(fingerprint().getGeneratedFilesIfUnchanged(chart).isPresent());
+    }
+
+    @Test
+    void shouldDetectModifiedCopiedFiles() throws IOException {
+        Files.write(crds.resolve("crd.yaml"), "changed".getBytes(StandardCharsets.UTF_8));
+
+        assertFalse(fingerprint().getGeneratedFilesIfUnchanged(chart).isPresent());
+    }
+
+    @Test
+    void shouldDetectDeletedGeneratedFiles() throws IOException {
+        Files.delete(crds.resolve("crd.yaml"));
+        Files.delete(crds);
+
+        assertFalse(fingerprint().getGeneratedFilesIfUnchanged(chart).isPresent());
+    }
+
+    @Test
+    void shouldDetectChangedInputs() throws IOException {
+        ChartFingerprint changed = fingerprint().addInput("config", "quarkus.helm.version=2".getBytes(StandardCharsets.UTF_8));
+
+        assertFalse(changed.getGeneratedFilesIfUnchanged(chart).isPresent());
+    }
+
+    @Test
+    void shouldFingerprintTheGeneratorLocation() throws IOException {
+        Path first = tempDir.resolve("first");
+        Path second = tempDir.resolve("second");
+        new ChartFingerprint().addGenerator("generator", ChartFingerprint.class).write(first, Map.of());
+        new ChartFingerprint().addGenerator("generator", ChartFingerprint.class).write(second, Map.of());
+        new ChartFingerprint().addGenerator("generator", Test.class).write(tempDir.resolve("other"), Map.of());
+
+        assertEquals(read(first), read(second));
+        assertNotEquals(read(first), read(tempDir.resolve("other")));
+    }
+
+    private static ChartFingerprint fingerprint() {
+        return new ChartFingerprint().addInput("config", "quarkus.helm.version=1".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(Path folder) throws IOException {
+        return new String(Files.readAllBytes(folder.resolve(ChartFingerprint.FINGERPRINT_FILE)), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,126 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ChartFolderSyncTest {
+
+    private static final String FINGERPRINT = ".helm-fingerprint";
+    private static final Set<String> PRESERVED = Set.of(FINGERPRINT);
+    private static final FileTime OLD_TIME = FileTime.fromMillis(1_000_000_000L);
+    private static final String[] FILES = { "Chart.yaml", "values.yaml", "README.md", "templates/deployment.yaml",
+            "templates/service.yaml", "templates/nested/configmap.yaml", "charts/db/Chart.yaml", "charts" };
+    private static final String[] CONTENTS = { "", "a", "b", "bb", "apiVersion: v2\n" };
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * The chart folder ends up with the same files as when it was deleted and the chart was written into it.
+     */
+    @Test
+    void shouldLeaveSameFilesAsDeletingTheFolder() throws IOException {
+        Random random = new Random(42);
+        for (int iteration = 0; iteration < 200; iteration++) {
+            Path target = tempDir.resolve("target-" + iteration);
+            Path staging = tempDir.resolve("staging-" + iteration);
+            Map<String, String> previous = randomChart(random);
+            Map<String, String> current = randomChart(random);
+            if (random.nextBoolean()) {
+                write(target, previous);
+                Files.writeString(target.resolve(FINGERPRINT), "fingerprint");
+            }
+
+            write(staging, current);
+            ChartFolderSync sync = ChartFolderSync.sync(staging, target, PRESERVED);
+
+            Map<String, String> expected = new TreeMap<>(current);
+            if (Files.exists(target.resolve(FINGERPRINT))) {
+                expected.put(FINGERPRINT, "fingerprint");
+            }
+
+            assertEquals(expected, read(target), sync.toString());
+            assertFalse(Files.exists(staging));
+        }
+    }
+
+    @Test
+    void shouldOnlyReplaceTheChangedFiles() throws IOException {
+        Path target = tempDir.resolve("target");
+        Path staging = tempDir.resolve("staging");
+        write(target, Map.of("Chart.yaml", "name: chart", "values.yaml", "replicas: 1", "templates/old.yaml", "old",
+                FINGERPRINT, "fingerprint"));
+        try (Stream<Path> files = Files.walk(target)) {
+            for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                Files.setLastModifiedTime(file, OLD_TIME);
+            }
+        }
+
+        write(staging, Map.of("Chart.yaml", "name: chart", "values.yaml", "replicas: 2", "templates/new.yaml", "new"));
+        ChartFolderSync sync = ChartFolderSync.sync(staging, target, PRESERVED);
+
+        assertEquals(1, sync.getAdded());
+        assertEquals(1, sync.getChanged());
+        assertEquals(1, sync.getRemoved());
+        assertEquals(1, sync.getUntouched());
+        assertEquals(OLD_TIME, Files.getLastModifiedTime(target.resolve("Chart.yaml")));
+        assertEquals(OLD_TIME, Files.getLastModifiedTime(target.resolve(FINGERPRINT)));
+        assertEquals(Map.of("Chart.yaml", "name: chart", "values.yaml", "replicas: 2", "templates/new.yaml", "new",
+                FINGERPRINT, "fingerprint"), read(target));
+    }
+
+    private static Map<String, String> randomChart(Random random) {
+        Map<String, String> chart = new TreeMap<>();
+        for (String file : FILES) {
+            if (random.nextInt(3) > 0) {
+                chart.put(file, CONTENTS[random.nextInt(CONTENTS.length)]);
+            }
+        }
+
+        // a file and a folder can't have the same name
+        if (chart.keySet().stream().anyMatch(file -> file.startsWith("charts/"))) {
+            chart.remove("charts");
+        }
+
+        return chart;
+    }
+
+    private static void write(Path folder, Map<String, String> files) throws IOException {
+        Files.createDirectories(folder);
+        for (Map.Entry<String, String> file : files.entrySet()) {
+            Path path = folder.resolve(file.getKey());
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, file.getValue());
+        }
+    }
+
+    private static Map<String, String> read(Path folder) throws IOException {
+        Map<String, String> files = new TreeMap<>();
+        if (!Files.exists(folder)) {
+            return files;
+        }
+
+        try (Stream<Path> paths = Files.walk(folder)) {
+            for (Path path : paths.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                files.put(folder.relativize(path).toString(), Files.readString(path, StandardCharsets.UTF_8));
+            }
+        }
+
+        return files;
+    }
+}
@@ -0,0 +1,88 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileCopyUtilsTest {
+
+    private static final String CRD = "apiVersion: apiextensions.k8s.io/v1\nkind: CustomResourceDefinition\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldCopyFolderRecursively() throws IOException {
+        Path source = writeCrds(tempDir.resolve("input").resolve("crds"));
+        Path destination = tempDir.resolve("chart").resolve("crds");
+
+        FileCopyUtils.copy(source, destination, false);
+
+        assertEquals(CRD, read(destination.resolve("crd.yaml")));
+        assertEquals(CRD, read(destination.resolve("nested").resolve("crd.yaml")));
+        assertFalse(Files.isSameFile(source.resolve("crd.yaml"), destination.resolve("crd.yaml")));
+    }
+
+    @Test
+    void shouldFollowSymbolicLinks() throws IOException {
+        Path crds = writeCrds(tempDir.resolve("shared").resolve("crds"));
+        Path source = tempDir.resolve("input").resolve("crds");
+        Files.createDirectories(source.getParent());
+        Files.createSymbolicLink(source, crds);
+        Files.createSymbolicLink(crds.resolve("linked.yaml"), crds.resolve("crd.yaml"));
+        Path destination = tempDir.resolve("chart").resolve("crds");
+
+        FileCopyUtils.copy(source, destination, false);
+
+        assertTrue(Files.isDirectory(destination, LinkOption.NOFOLLOW_LINKS));
+        assertEquals(CRD, read(destination.resolve("nested").resolve("crd.yaml")));
+        assertTrue(Files.isRegularFile(destination.resolve("linked.yaml"), LinkOption.NOFOLLOW_LINKS));
+        assertEquals(CRD, read(destination.resolve("linked.yaml")));
+    }
+
+    @Test
+    void shouldHardLinkFiles() throws IOException {
+        Path source = writeCrds(tempDir.resolve("input").resolve("crds"));
+        Path destination = tempDir.resolve("chart").resolve("crds");
+
+        FileCopyUtils.copy(source, destination, true);
+
+        assertTrue(Files.isSameFile(source.resolve("crd.yaml"), destination.resolve("crd.yaml")));
+        assertTrue(Files.isSameFile(source.resolve("nested").resolve("crd.yaml"),
+                destination.resolve("nested").resolve("crd.yaml")));
+    }
+
+    @Test
+    void shouldNotWriteIntoPreviouslyLinkedFiles() throws IOException {
+        Path source = writeCrds(tempDir.resolve("input").resolve("crds"));
+        Path destination = tempDir.resolve("chart").resolve("crds");
+        FileCopyUtils.copy(source, destination, true);
+
+        // copying over the links of a previous build must replace them instead of truncating the source files
+        FileCopyUtils.copy(source, destination, false);
+        Files.write(destination.resolve("crd.yaml"), "changed".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(CRD, read(source.resolve("crd.yaml")));
+        assertEquals(CRD, read(destination.resolve("nested").resolve("crd.yaml")));
+    }
+
+    private static Path writeCrds(Path folder) throws IOException {
+        Files.createDirectories(folder.resolve("nested"));
+        Files.write(folder.resolve("crd.yaml"), CRD.getBytes(StandardCharsets.UTF_8));
+        Files.write(folder.resolve("nested").resolve("crd.yaml"), CRD.getBytes(StandardCharsets.UTF_8));
+        return folder;
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
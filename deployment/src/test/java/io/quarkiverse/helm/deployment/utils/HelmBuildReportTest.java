@@ -0,0 +1,151 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import io.dekorate.utils.Serialization;
+import io.quarkiverse.helm.deployment.utils.HelmBuildReport.Phase;
+
+class HelmBuildReportTest {
+
+    private static final long TEN_MILLIS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long ONE_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldWriteGeneratedChart() throws IOException {
+        HelmBuildReport report = new HelmBuildReport("kubernetes");
+        report.setChartName("my-chart");
+        report.addManifest(1000);
+        report.addManifest(500);
+        report.addResources(3);
+        report.addResources(2);
+        report.addTemplateBytes(700);
+        report.addGeneratedFile(100);
+        report.addGeneratedFile(50);
+        report.setTarballBytes(300);
+        report.setTarballSha256("abc");
+        report.setRedundantValueReferences(2, 3);
+        report.addDuration(Phase.VALUES_POPULATION, System.nanoTime() - TEN_MILLIS);
+        report.addDuration(Phase.YAML_PARSING, System.nanoTime() - TEN_MILLIS);
+        report.addDuration(Phase.YAML_PARSING, System.nanoTime() - TEN_MILLIS);
+        report.addDuration(Phase.TARBALL, System.nanoTime());
+        report.finish();
+
+        Map<String, Object> written = write(report);
+        assertEquals("kubernetes", written.get("deploymentTarget"));
+        assertEquals("my-chart", written.get("chart"));
+        assertEquals(false, written.get("upToDate"));
+        assertEquals(2, written.get("manifests"));
+        assertEquals(1500, written.get("manifestBytes"));
+        assertEquals(5, written.get("resources"));
+        assertEquals(700, written.get("templateBytes"));
+        assertEquals(2, written.get("generatedFiles"));
+        assertEquals(150, written.get("generatedBytes"));
+        assertEquals(300, written.get("tarballBytes"));
+        assertEquals("abc", written.get("tarballSha256"));
+        assertEquals(2, written.get("redundantValueReferences"));
+        // 3 paths looked up in 2 manifests
+        assertEquals(6, written.get("estimatedEliminatedWrites"));
+        assertFalse(written.containsKey("pushSkipped"));
+        assertFalse(written.containsKey("sync"));
+
+        Map<String, Double> phases = phases(written);
+        assertEquals(List.of("valuesPopulation", "yamlParsing", "tarball"), List.copyOf(phases.keySet()));
+        assertTrue(phases.get("valuesPopulation") >= 10, phases.toString());
+        assertTrue(phases.get("yamlParsing") >= 20, phases.toString());
+    }
+
+    @Test
+    void shouldAddPushToTotalAfterFinish() throws IOException {
+        HelmBuildReport report = new HelmBuildReport("kubernetes");
+        report.finish();
+        double total = millis(write(report), "totalMillis");
+
+        report.addDuration(Phase.PUSH, System.nanoTime() - ONE_MINUTE);
+        report.setSkippedPushBytes(300);
+
+        Map<String, Object> written = write(report);
+        assertTrue(millis(written, "totalMillis") >= total + 60_000, written.toString());
+        assertTrue(phases(written).get("push") >= 60_000, written.toString());
+        assertEquals(true, written.get("pushSkipped"));
+        assertEquals(300, written.get("savedPushBytes"));
+    }
+
+    @Test
+    void shouldWriteUpToDateChart() throws IOException {
+        HelmBuildReport report = new HelmBuildReport("openshift");
+        report.setChartName("my-chart");
+        report.setUpToDate(true);
+        report.addDuration(Phase.FINGERPRINT, System.nanoTime() - TEN_MILLIS);
+        report.finish();
+
+        Map<String, Object> written = write(report);
+        assertEquals("openshift", written.get("deploymentTarget"));
+        assertEquals("my-chart", written.get("chart"));
+        assertEquals(true, written.get("upToDate"));
+        assertEquals(List.of("fingerprint"), List.copyOf(phases(written).keySet()));
+        assertEquals(0, written.get("resources"));
+        assertFalse(written.containsKey("tarballSha256"));
+        assertTrue(report.toSummary().startsWith("Helm chart for 'openshift' was up to date"), report.toSummary());
+    }
+
+    @Test
+    void shouldWriteSyncCounters() throws IOException {
+        Path target = tempDir.resolve("target");
+        Path staging = tempDir.resolve("staging");
+        Files.createDirectories(target);
+        Files.createDirectories(staging);
+        Files.writeString(target.resolve("Chart.yaml"), "name: chart");
+        Files.writeString(target.resolve("values.yaml"), "replicas: 1");
+        Files.writeString(target.resolve("old.yaml"), "old");
+        Files.writeString(staging.resolve("Chart.yaml"), "name: chart");
+        Files.writeString(staging.resolve("values.yaml"), "replicas: 2");
+        Files.writeString(staging.resolve("new.yaml"), "new");
+        Files.writeString(staging.resolve("other.yaml"), "other");
+
+        HelmBuildReport report = new HelmBuildReport("kubernetes");
+        report.setSync(ChartFolderSync.sync(staging, target, Set.of()));
+        report.addDuration(Phase.SYNC, System.nanoTime());
+        report.finish();
+
+        Map<String, Object> written = write(report);
+        assertEquals(Map.of("added", 2, "changed", 1, "removed", 1, "untouched", 1), written.get("sync"));
+        assertEquals(List.of("sync"), List.copyOf(phases(written).keySet()));
+        assertTrue(report.toSummary().endsWith("(2 added, 1 changed, 1 removed and 1 untouched files)"),
+                report.toSummary());
+    }
+
+    private Map<String, Object> write(HelmBuildReport report) throws IOException {
+        Path file = report.write(tempDir.resolve("chart"));
+        assertEquals(tempDir.resolve("chart").resolve(HelmBuildReport.REPORT_FILE), file);
+        return Serialization.jsonMapper().readValue(file.toFile(), new TypeReference<Map<String, Object>>() {
+        });
+    }
+
+    private static Map<String, Double> phases(Map<String, Object> written) {
+        return Serialization.jsonMapper().convertValue(written.get("phasesMillis"),
+                new TypeReference<Map<String, Double>>() {
+                });
+    }
+
+    private static double millis(Map<String, Object> written, String key) {
+        return ((Number) written.get(key)).doubleValue();
+    }
+}
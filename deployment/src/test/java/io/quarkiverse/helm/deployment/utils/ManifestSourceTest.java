@@ -0,0 +1,122 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.dekorate.utils.Serialization;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.IntOrString;
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
+import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.github.yamlpath.YamlExpressionParser;
+
+class ManifestSourceTest {
+
+    private static final String NAME = "kubernetes.yml";
+
+    /**
+     * The resources of the dekorate session are the same as when the content that was serialized from them is parsed.
+     */
+    @Test
+    void shouldParseSameResourcesAsTheContent() throws IOException {
+        KubernetesList resources = resources();
+        byte[] content = Serialization.asYaml(resources).getBytes(StandardCharsets.UTF_8);
+
+        ManifestSource source = ManifestSource.fromResources(NAME, resources, content);
+
+        YamlExpressionParser expected = ManifestSource.fromBytes(NAME, content).parse();
+        assertEquals(expected.getResources(), source.parse().getResources());
+        // in the same order
+        assertEquals(expected.dumpAsString(), source.parse().dumpAsString());
+        assertArrayEquals(content, source.getContent());
+        assertEquals(NAME, source.getName());
+    }
+
+    @Test
+    void shouldKeepStringsThatLookLikeNumbers() throws IOException {
+        KubernetesList resources = new KubernetesListBuilder()
+                .addToItems(new ConfigMapBuilder()
+                        .withNewMetadata().withName("app").endMetadata()
+                        .addToData("threshold", "1e3")
+                        .build())
+                .build();
+        byte[] content = Serialization.asYaml(resources).getBytes(StandardCharsets.UTF_8);
+
+        // the content is serialized without quotes, so it is parsed as a number
+        assertEquals(1000.0, ManifestSource.fromBytes(NAME, content).parse().<Double> readSingle("data.threshold"));
+        assertEquals("1e3", ManifestSource.fromResources(NAME, resources, content).parse().readSingle("data.threshold"));
+    }
+
+    @Test
+    void shouldParseCopiesOfTheResources() throws IOException {
+        ManifestSource source = ManifestSource.fromResources(NAME, resources(), null);
+
+        YamlExpressionParser parser = source.parse();
+        parser.write("(kind == Deployment).spec.replicas", 5);
+
+        assertEquals(5, parser.<Integer> readSingle("(kind == Deployment).spec.replicas"));
+        assertEquals(3, source.parse().<Integer> readSingle("(kind == Deployment).spec.replicas"));
+    }
+
+    @Test
+    void shouldSerializeTheResourcesWithoutContent() throws IOException {
+        KubernetesList resources = resources();
+        ManifestSource source = ManifestSource.fromResources(NAME, resources, null);
+
+        List<Map<Object, Object>> parsed = ManifestSource.fromBytes(NAME, source.getContent()).parse().getResources();
+        assertEquals(ManifestSource.fromResources(NAME, resources, null).parse().getResources(), parsed);
+        assertEquals(source.getContent().length, source.getSize());
+    }
+
+    private static KubernetesList resources() {
+        return new KubernetesListBuilder()
+                .addToItems(new DeploymentBuilder()
+                        .withNewMetadata()
+                        .withName("app")
+                        .addToLabels("app.kubernetes.io/version", "1.0")
+                        .addToAnnotations("app.quarkus.io/build-timestamp", "2023-01-01 - 10:00:00 +0000")
+                        .addToAnnotations("mode", "0755")
+                        .addToAnnotations("enabled", "true")
+                        .addToAnnotations("empty", "")
+                        .endMetadata()
+                        .withNewSpec()
+                        .withReplicas(3)
+                        .withNewTemplate()
+                        .withNewSpec()
+                        .withTerminationGracePeriodSeconds(30L)
+                        .addNewContainer()
+                        .withName("app")
+                        .withImage("quay.io/example/app:1.0")
+                        .withArgs("--port", "8080")
+                        .addNewEnv().withName("DEBUG").withValue("false").endEnv()
+                        .addNewEnv().withName("PORT").withValue("8080").endEnv()
+                        .withNewResources()
+                        .addToLimits("cpu", new Quantity("500m"))
+                        .addToLimits("memory", new Quantity("1Gi"))
+                        .endResources()
+                        .addNewPort().withName("http").withContainerPort(8080).endPort()
+                        .endContainer()
+                        .endSpec()
+                        .endTemplate()
+                        .endSpec()
+                        .build())
+                .addToItems(new ServiceBuilder()
+                        .withNewMetadata().withName("app").endMetadata()
+                        .withNewSpec()
+                        .addNewPort().withName("http").withPort(80).withTargetPort(new IntOrString(8080)).endPort()
+                        .addNewPort().withName("https").withPort(443).withTargetPort(new IntOrString("https")).endPort()
+                        .endSpec()
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class MapUtilsTest {
+
+    /**
+     * The nested maps are the same as the ones built before the keys were split in a single pass, when the keys have no
+     * escaped dots and no conflicts between values and nested properties.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "a",
+            "a.b.c",
+            "a.b.c|a.b.d|a.e|f",
+            "a.b.|a.c",
+            "a.b..|a.c",
+            "a.",
+            "a..",
+            "",
+            ".a",
+            "a..b",
+            "a.b|a.b.",
+            "a.b.|a.b",
+            "a\\b.c",
+    })
+    void shouldBuildSameMapsAsBefore(String keys) {
+        Map<String, Object> properties = toProperties(keys);
+
+        assertEquals(toMultiValueMap(properties, TreeMap::new), MapUtils.toMultiValueSortedMap(properties));
+    }
+
+    @Test
+    void shouldIgnoreTrailingDots() {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("a.b.", 1);
+        properties.put("a.c..", 2);
+
+        assertEquals(Map.of("a", Map.of("b", 1, "c", 2)), MapUtils.toMultiValueSortedMap(properties));
+        // a single segment is kept as it is
+        assertEquals(Map.of("a.", 1), MapUtils.toMultiValueSortedMap(Map.of("a.", 1)));
+    }
+
+    @Test
+    void shouldKeepTheLastValueOfTheSameProperty() {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("a.b", 1);
+        properties.put("a.b.", 2);
+
+        assertEquals(Map.of("a", Map.of("b", 2)), MapUtils.toMultiValueSortedMap(properties));
+    }
+
+    @Test
+    void shouldKeepEscapedDotsInKeys() {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("a\\.b.c", 1);
+        properties.put("a\\.b.d\\.e", 2);
+        properties.put("a.b", 3);
+        properties.put("f\\g.h", 4);
+
+        assertEquals(Map.of("a.b", Map.of("c", 1, "d.e", 2), "a", Map.of("b", 3), "f\\g", Map.of("h", 4)),
+                MapUtils.toMultiValueSortedMap(properties));
+        assertEquals(Map.of("a.b", 1), MapUtils.toMultiValueSortedMap(Map.of("a\\.b", 1)));
+        assertEquals(Map.of("a.b.", 1), MapUtils.toMultiValueSortedMap(Map.of("a\\.b.", 1)));
+    }
+
+    @Test
+    void shouldKeepNestedPropertiesOnConflicts() {
+        Map<String, Object> valueFirst = new LinkedHashMap<>();
+        valueFirst.put("a.b", 1);
+        valueFirst.put("a.b.c", 2);
+        Map<String, Object> valueLast = new LinkedHashMap<>();
+        valueLast.put("a.b.c", 2);
+        valueLast.put("a.b", 1);
+        Map<String, Object> expected = Map.of("a", Map.of("b", Map.of("c", 2)));
+
+        assertEquals(expected, MapUtils.toMultiValueSortedMap(valueFirst));
+        assertEquals(expected, MapUtils.toMultiValueSortedMap(valueLast));
+    }
+
+    @Test
+    void shouldMergeMapValuesWithoutModifyingThem() {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("c", 1);
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("a.b", value);
+        properties.put("a.b.d", 2);
+
+        assertEquals(Map.of("a", Map.of("b", Map.of("c", 1, "d", 2))), MapUtils.toMultiValueSortedMap(properties));
+        assertEquals(Map.of("c", 1), value);
+    }
+
+    private static Map<String, Object> toProperties(String keys) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        String[] names = keys.split(Pattern.quote("|"), -1);
+        for (int index = 0; index < names.length; index++) {
+            properties.put(names[index], index);
+        }
+
+        return properties;
+    }
+
+    /**
+     * The building of the nested maps that was used before the keys were split in a single pass.
+     */
+    private static Map<String, Object> toMultiValueMap(Map<String, Object> map, Supplier<Map<String, Object>> supplier) {
+        Map<String, Object> multiValueMap = supplier.get();
+        map.forEach((k, v) -> {
+
+            String[] nodes = k.split(Pattern.quote("."));
+            if (nodes.length == 1) {
+                multiValueMap.put(k, v);
+            } else {
+                Map<String, Object> auxKeyValue = multiValueMap;
+                for (int index = 0; index < nodes.length - 1; index++) {
+                    String nodeName = nodes[index];
+                    Object nodeKeyValue = auxKeyValue.get(nodeName);
+                    if (nodeKeyValue == null || !(nodeKeyValue instanceof Map)) {
+                        nodeKeyValue = supplier.get();
+                    }
+
+                    auxKeyValue.put(nodes[index], nodeKeyValue);
+                    auxKeyValue = (Map<String, Object>) nodeKeyValue;
+                }
+
+                auxKeyValue.put(nodes[nodes.length - 1], v);
+            }
+        });
+
+        return multiValueMap;
+    }
+}
@@ -0,0 +1,102 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ParallelGzipOutputStreamTest {
+
+    private static final int BLOCK_SIZE = 128 * 1024;
+    private static final int[] SIZES = { 0, 1, BLOCK_SIZE - 1, BLOCK_SIZE, BLOCK_SIZE + 1, 2 * BLOCK_SIZE - 1,
+            2 * BLOCK_SIZE, 2 * BLOCK_SIZE + 1, 9 * BLOCK_SIZE + 17 };
+
+    /**
+     * The content reads back the same through `GZIPInputStream`, whether it is written in one member or in one member per
+     * block, and whether the blocks are filled at once or in chunks that do not match the block boundaries.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 2, 4 })
+    void shouldReadBackSameContent(int threads) throws IOException {
+        Random random = new Random(42);
+        for (int size : SIZES) {
+            byte[] content = content(random, size);
+            for (int level : new int[] { -1, 0, 1, 9 }) {
+                assertArrayEquals(content, gunzip(gzipAtOnce(content, level, threads)), size + " bytes at level " + level);
+                assertArrayEquals(content, gunzip(gzipInChunks(content, level, threads)), size + " bytes at level " + level);
+            }
+        }
+    }
+
+    @Test
+    void shouldReadBackSameContentWrittenByteByByte() throws IOException {
+        byte[] content = content(new Random(42), BLOCK_SIZE + 1);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream gzip = ParallelGzipOutputStream.create(compressed, -1, 2)) {
+            for (byte b : content) {
+                gzip.write(b);
+            }
+        }
+
+        assertArrayEquals(content, gunzip(compressed.toByteArray()));
+    }
+
+    @Test
+    void shouldFailOnInvalidLevelOrClosedStream() throws IOException {
+        assertThrows(IllegalArgumentException.class,
+                () -> ParallelGzipOutputStream.create(new ByteArrayOutputStream(), 10, 2));
+        OutputStream gzip = ParallelGzipOutputStream.create(new ByteArrayOutputStream(), -1, 2);
+        gzip.close();
+        assertThrows(IOException.class, () -> gzip.write(1));
+    }
+
+    private static byte[] content(Random random, int size) {
+        // half random and half repeated, so that the blocks are compressed
+        byte[] content = new byte[size];
+        random.nextBytes(content);
+        for (int index = size / 2; index < size; index++) {
+            content[index] = (byte) ('a' + index % 7);
+        }
+
+        return content;
+    }
+
+    private static byte[] gzipAtOnce(byte[] content, int level, int threads) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream gzip = ParallelGzipOutputStream.create(compressed, level, threads)) {
+            gzip.write(content);
+        }
+
+        return compressed.toByteArray();
+    }
+
+    private static byte[] gzipInChunks(byte[] content, int level, int threads) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream gzip = ParallelGzipOutputStream.create(compressed, level, threads)) {
+            int offset = 0;
+            while (offset < content.length) {
+                int length = Math.min(content.length - offset, 10_007);
+                gzip.write(content, offset, length);
+                offset += length;
+            }
+        }
+
+        return compressed.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return gzip.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.dekorate.helm.config.HelmChartConfig;
+import io.dekorate.helm.config.HelmChartConfigBuilder;
+import io.dekorate.helm.config.HelmDependency;
+import io.dekorate.helm.config.HelmDependencyBuilder;
+import io.dekorate.utils.Strings;
+
+class PropertyDeductionContextTest {
+
+    private static final List<HelmChartConfig> CONFIGS = List.of(
+            new HelmChartConfigBuilder().withValuesRootAlias("app").build(),
+            new HelmChartConfigBuilder().withValuesRootAlias("app")
+                    .withDependencies(new HelmDependencyBuilder().withName("postgresql").withAlias("db").build(),
+                            new HelmDependencyBuilder().withName("redis").build(),
+                            new HelmDependencyBuilder().withName("app").build())
+                    .build(),
+            new HelmChartConfigBuilder().withValuesRootAlias("my.root")
+                    .withDependencies(new HelmDependencyBuilder().withName("").build())
+                    .build());
+
+    /**
+     * The properties are deducted the same way as before the dependency names were computed once, in every chart and
+     * twice, since the second time is a lookup.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "replicas",
+            "app.replicas",
+            "app",
+            "app.",
+            "appreplicas",
+            "@.replicas",
+            "@.app.replicas",
+            "@.",
+            "@@.replicas",
+            "db.enabled",
+            "db",
+            "db.",
+            "db..",
+            "db..enabled",
+            "postgresql.enabled",
+            "redis.enabled",
+            "redis.auth.password",
+            "my.root.replicas",
+            "my.rootreplicas",
+            ".enabled",
+            ".",
+            "",
+    })
+    void shouldDeductSamePropertiesAsBefore(String property) {
+        for (HelmChartConfig config : CONFIGS) {
+            PropertyDeductionContext context = new PropertyDeductionContext(config);
+            assertEquals(deductProperty(config, property), context.deductProperty(property), config.getValuesRootAlias());
+            assertEquals(deductProperty(config, property), context.deductProperty(property), config.getValuesRootAlias());
+            assertEquals(deductProperty(config, property), HelmConfigUtils.deductProperty(config, property));
+        }
+    }
+
+    /**
+     * The deduction of the properties that was used before the context.
+     */
+    private static String deductProperty(HelmChartConfig helmConfig, String property) {
+        if (property.startsWith("@.")) {
+            return property.replaceFirst(Pattern.quote("@."), "");
+        }
+
+        if (!startWithDependencyPrefix(property, helmConfig.getDependencies())) {
+            String prefix = helmConfig.getValuesRootAlias() + ".";
+            if (!property.startsWith(prefix)) {
+                property = prefix + property;
+            }
+        }
+
+        return property;
+    }
+
+    private static boolean startWithDependencyPrefix(String property, HelmDependency[] dependencies) {
+        if (dependencies == null || dependencies.length == 0) {
+            return false;
+        }
+
+        String[] parts = property.split(Pattern.quote("."));
+        if (parts.length <= 1) {
+            return false;
+        }
+
+        String name = parts[0];
+        return Stream.of(dependencies)
+                .map(d -> Strings.defaultIfEmpty(d.getAlias(), d.getName()))
+                .anyMatch(d -> Strings.equals(d, name));
+    }
+}
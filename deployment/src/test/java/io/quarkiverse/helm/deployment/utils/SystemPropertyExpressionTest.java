@@ -0,0 +1,170 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class SystemPropertyExpressionTest {
+
+    @Test
+    void shouldParseSystemPropertyWithoutDefaultValue() {
+        List<SystemPropertyExpression.SystemProperty> systemProperties = SystemPropertyExpression.parse("${A}")
+                .getSystemProperties();
+
+        assertEquals(1, systemProperties.size());
+        assertEquals("A", systemProperties.get(0).getName());
+        assertEquals("A", systemProperties.get(0).getContent());
+        assertNull(systemProperties.get(0).getDefaultValue());
+    }
+
+    @Test
+    void shouldParseDefaultValues() {
+        SystemPropertyExpression.SystemProperty systemProperty = SystemPropertyExpression.parse("${A:default}")
+                .getSystemProperties().get(0);
+
+        assertEquals("A", systemProperty.getName());
+        assertEquals("A:default", systemProperty.getContent());
+        assertEquals("default", systemProperty.getDefaultValue().getRawValue());
+        assertTrue(systemProperty.getDefaultValue().getSystemProperties().isEmpty());
+
+        SystemPropertyExpression.SystemProperty empty = SystemPropertyExpression.parse("${A:}").getSystemProperties().get(0);
+        assertEquals("A", empty.getName());
+        assertEquals("", empty.getDefaultValue().getRawValue());
+    }
+
+    @Test
+    void shouldParseNestedSystemProperties() {
+        SystemPropertyExpression expression = SystemPropertyExpression.parse("prefix-${A:${B:${C:nested}}}-${D}-suffix");
+
+        List<SystemPropertyExpression.SystemProperty> systemProperties = expression.getSystemProperties();
+        assertEquals(2, systemProperties.size());
+        assertEquals("A:${B:${C:nested}}", systemProperties.get(0).getContent());
+        assertEquals("D", systemProperties.get(1).getName());
+
+        SystemPropertyExpression b = systemProperties.get(0).getDefaultValue();
+        assertEquals("${B:${C:nested}}", b.getRawValue());
+        assertEquals("B", b.getSystemProperties().get(0).getName());
+        SystemPropertyExpression c = b.getSystemProperties().get(0).getDefaultValue();
+        assertEquals("C", c.getSystemProperties().get(0).getName());
+        assertEquals("nested", c.getSystemProperties().get(0).getDefaultValue().getRawValue());
+    }
+
+    @Test
+    void shouldNotParseUnclosedSystemProperties() {
+        assertTrue(SystemPropertyExpression.parse("${A").getSystemProperties().isEmpty());
+        assertTrue(SystemPropertyExpression.parse("${A:${B:default").getSystemProperties().isEmpty());
+
+        // the previous parsing returned `A:${B` here, which is not a system property
+        List<SystemPropertyExpression.SystemProperty> systemProperties = SystemPropertyExpression.parse("${A:${B}")
+                .getSystemProperties();
+        assertEquals(1, systemProperties.size());
+        assertEquals("B", systemProperties.get(0).getName());
+    }
+
+    @Test
+    void shouldKeepTheTextAfterNestedSystemProperties() {
+        // the previous parsing dropped the `-suffix` text of the default value
+        SystemPropertyExpression.SystemProperty systemProperty = SystemPropertyExpression.parse("${A:${B}-suffix}")
+                .getSystemProperties().get(0);
+
+        assertEquals("A:${B}-suffix", systemProperty.getContent());
+        assertEquals("${B}-suffix", systemProperty.getDefaultValue().getRawValue());
+    }
+
+    @Test
+    void shouldParseUnclosedNestedSystemPropertiesInLinearTime() throws InterruptedException {
+        // every unclosed system property is the default value of the previous one, so the parser goes deep in the stack
+        String value = "${a:".repeat(50_000) + "${closed}";
+        AtomicReference<List<SystemPropertyExpression.SystemProperty>> parsed = new AtomicReference<>();
+        Thread thread = new Thread(null, () -> parsed.set(SystemPropertyExpression.parse(value).getSystemProperties()),
+                "parser", 512L * 1024 * 1024);
+        thread.start();
+        thread.join(TimeUnit.SECONDS.toMillis(30));
+
+        assertTrue(parsed.get() != null, "The value was not parsed in time");
+        assertEquals(1, parsed.get().size());
+        assertEquals("closed", parsed.get().get(0).getName());
+    }
+
+    /**
+     * The values of the properties are the same as the ones found by the parsing of the system properties that was used
+     * before the expressions, including for malformed values and values with escaped characters.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "no system properties",
+            "${A}",
+            "${A}${B}",
+            "prefix ${A} infix ${B:default} suffix",
+            "${A:default with spaces and : colons}",
+            "${A:${B}}",
+            "${A:${B:${C:nested}}}",
+            "${A:${B}}-${C:${D:d}}",
+            "${A:}",
+            "${}",
+            "${:default}",
+            "\\${A}",
+            "$${A}",
+            "${A:\\}}",
+            "{${A}}",
+            "${A}}",
+            "${A",
+            "${",
+    })
+    void shouldFindSameSystemPropertiesAsBefore(String value) {
+        assertEquals(substringsBetween(value), SystemPropertiesUtils.getSystemProperties(value));
+    }
+
+    /**
+     * The parsing of the system properties that was used before the expressions.
+     */
+    private static List<String> substringsBetween(String str) {
+        List<String> list = new ArrayList<>();
+        int end;
+        for (int pos = 0; pos < str.length() - 1; pos = end + 1) {
+            int start = str.indexOf("${", pos);
+            if (start < 0) {
+                break;
+            }
+
+            start += 2;
+            end = str.indexOf("}", start);
+            if (end < 0) {
+                break;
+            }
+
+            String currentStr = str.substring(start);
+            String tentative = currentStr.substring(0, end - start);
+            while (countMatches(tentative, "${") != countMatches(tentative, "}")) {
+                end++;
+                if (end >= str.length()) {
+                    break;
+                }
+
+                tentative = currentStr.substring(0, end - start);
+            }
+
+            list.add(tentative);
+        }
+
+        return list;
+    }
+
+    private static int countMatches(String str, String sub) {
+        int count = 0;
+        for (int index = 0; (index = str.indexOf(sub, index)) != -1; index += sub.length()) {
+            count++;
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,185 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class TarballWriterTest {
+
+    private static final long MODIFICATION_TIME = 1_700_000_000_000L;
+    private static final String LONG_NAME = "chart/templates/" + "a".repeat(120) + ".yaml";
+    // the 100th byte is the first byte of a two-byte character
+    private static final String LONG_UTF8_NAME = "chart/" + "b".repeat(93) + "éèê".repeat(20) + ".yaml";
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void shouldBeReadableByCommonsCompress(boolean gzip) throws IOException {
+        Map<String, byte[]> entries = entries();
+        Path tarball = write(tempDir.resolve("chart.tar"), gzip, entries);
+
+        Map<String, byte[]> read = new LinkedHashMap<>();
+        try (TarArchiveInputStream tar = new TarArchiveInputStream(open(tarball, gzip), StandardCharsets.UTF_8.name())) {
+            TarArchiveEntry entry;
+            while ((entry = tar.getNextTarEntry()) != null) {
+                assertTrue(entry.isFile(), entry.getName());
+                assertEquals(TarballWriter.FILE_MODE, entry.getMode(), entry.getName());
+                assertEquals(0, entry.getLongUserId(), entry.getName());
+                assertEquals(0, entry.getLongGroupId(), entry.getName());
+                assertEquals(MODIFICATION_TIME, entry.getModTime().getTime(), entry.getName());
+                read.put(entry.getName(), tar.readAllBytes());
+            }
+        }
+
+        assertEquals(List.copyOf(entries.keySet()), List.copyOf(read.keySet()));
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            assertArrayEquals(entry.getValue(), read.get(entry.getKey()), entry.getKey());
+        }
+    }
+
+    @Test
+    void shouldTruncateLongNamesOnCharacterBoundaries() throws IOException {
+        Path tarball = write(tempDir.resolve("chart.tar"), false, entries());
+
+        // the long names are in the PAX headers, and the names of the headers are truncated to 100 bytes
+        List<String> names = new ArrayList<>();
+        byte[] content = Files.readAllBytes(tarball);
+        int offset = 0;
+        while (content[offset] != 0) {
+            int end = offset;
+            while (end < offset + 100 && content[end] != 0) {
+                end++;
+            }
+
+            names.add(decode(content, offset, end - offset));
+            long size = Long.parseLong(new String(content, offset + 124, 11, StandardCharsets.US_ASCII), 8);
+            offset += 512 + (int) ((size + 511) / 512 * 512);
+        }
+
+        assertTrue(names.contains(LONG_UTF8_NAME.substring(0, 99)), names.toString());
+        assertTrue(names.contains(LONG_NAME.substring(0, 100)), names.toString());
+        assertTrue(names.contains("chart/Chart.yaml"), names.toString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void shouldWriteSameArchiveTwice(boolean gzip) throws IOException {
+        Path first = write(tempDir.resolve("first.tar"), gzip, entries());
+        Path second = write(tempDir.resolve("second.tar"), gzip, entries());
+
+        assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+    }
+
+    @Test
+    void shouldComputeDigestOfTheArchive() throws IOException {
+        Path tarball = tempDir.resolve("chart.tar.gz");
+        try (TarballWriter writer = new TarballWriter(tarball, true, -1, 2, MODIFICATION_TIME)) {
+            writer.addFile("chart/Chart.yaml", content("apiVersion: v2\n"));
+            assertNull(writer.getSha256());
+            writer.finish();
+            assertEquals(DigestUtils.sha256(tarball), writer.getSha256());
+        }
+
+        assertTrue(Files.exists(tarball));
+    }
+
+    @Test
+    void shouldRejectTheSameNameTwice() throws IOException {
+        try (TarballWriter writer = new TarballWriter(tempDir.resolve("chart.tar"), false, -1, 1, MODIFICATION_TIME)) {
+            writer.addFile("chart/Chart.yaml", "apiVersion: v2\n".getBytes(StandardCharsets.UTF_8));
+            assertTrue(writer.hasFile("chart/Chart.yaml"));
+            assertFalse(writer.hasFile("chart/values.yaml"));
+            assertThrows(IOException.class, () -> writer.addFile("chart/Chart.yaml", content("apiVersion: v2\n")));
+        }
+    }
+
+    @Test
+    void shouldDeleteTheArchiveWhenNotFinished() throws IOException {
+        Path tarball = tempDir.resolve("chart.tar.gz");
+
+        assertThrows(IOException.class, () -> {
+            try (TarballWriter writer = new TarballWriter(tarball, true, -1, 2, MODIFICATION_TIME)) {
+                writer.addFile("chart/Chart.yaml", content("apiVersion: v2\n"));
+                writer.addFile("chart/values.yaml", tempDir.resolve("missing.yaml"));
+                writer.finish();
+            }
+        });
+
+        assertFalse(Files.exists(tarball));
+    }
+
+    private Map<String, byte[]> entries() throws IOException {
+        Path values = tempDir.resolve("values.yaml");
+        if (!Files.exists(values)) {
+            // larger than a block of the parallel compression
+            Files.write(values, "app:\n  replicas: 1\n".repeat(10_000).getBytes(StandardCharsets.UTF_8));
+        }
+
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("chart/Chart.yaml", "apiVersion: v2\nname: chart\n".getBytes(StandardCharsets.UTF_8));
+        entries.put("chart/values.yaml", Files.readAllBytes(values));
+        entries.put(LONG_NAME, "kind: Service\n".getBytes(StandardCharsets.UTF_8));
+        entries.put(LONG_UTF8_NAME, new byte[0]);
+        entries.put("chart/templates/deployment.yaml", new byte[512]);
+        return entries;
+    }
+
+    private Path write(Path tarball, boolean gzip, Map<String, byte[]> entries) throws IOException {
+        try (TarballWriter writer = new TarballWriter(tarball, gzip, -1, 2, MODIFICATION_TIME)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                if (entry.getKey().equals("chart/values.yaml")) {
+                    writer.addFile(entry.getKey(), tempDir.resolve("values.yaml"));
+                } else {
+                    ByteArrayOutputStream content = new ByteArrayOutputStream();
+                    content.write(entry.getValue());
+                    writer.addFile(entry.getKey(), content);
+                }
+            }
+
+            writer.finish();
+        }
+
+        return tarball;
+    }
+
+    private static InputStream open(Path tarball, boolean gzip) throws IOException {
+        InputStream is = Files.newInputStream(tarball);
+        return gzip ? new GZIPInputStream(is) : is;
+    }
+
+    private static ByteArrayOutputStream content(String content) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        os.write(content.getBytes(StandardCharsets.UTF_8));
+        return os;
+    }
+
+    private static String decode(byte[] content, int offset, int length) throws CharacterCodingException {
+        return StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(content, offset, length)).toString();
+    }
+}
@@ -0,0 +1,105 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ValuesHolderTest {
+
+    private static final List<String> PROFILES = List.of("", "dev", "test");
+    private static final List<String> SEGMENTS = List.of("app", "envs", "GREETING", "FOO", "ING", "_FOO", "a", "");
+
+    @Test
+    void shouldFindSameValuesBySuffixAsBefore() {
+        Random random = new Random(42);
+        for (int iteration = 0; iteration < 500; iteration++) {
+            ValuesHolder values = new ValuesHolder();
+            int size = random.nextInt(30);
+            for (int index = 0; index < size; index++) {
+                String property = randomProperty(random);
+                String profile = PROFILES.get(random.nextInt(PROFILES.size()));
+                switch (random.nextInt(3)) {
+                    case 0:
+                        values.put(property, index, profile);
+                        break;
+                    case 1:
+                        values.putIfAbsent(property, index, profile);
+                        break;
+                    default:
+                        values.put(property, index);
+                }
+            }
+
+            for (int lookup = 0; lookup < 20; lookup++) {
+                String suffix = randomProperty(random);
+                for (String profile : PROFILES) {
+                    assertEquals(findBySuffix(values, suffix, profile), values.getBySuffix(suffix, profile),
+                            suffix + " in " + values.get(profile));
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldFindFirstValueInInsertionOrder() {
+        ValuesHolder values = new ValuesHolder();
+        values.put("app.other.envs.FOO", "other", "dev");
+        values.put("app.envs.FOO", "foo", "dev");
+        values.put("app.other.envs.FOO", "replaced", "dev");
+        values.put("app.envs.GREETING", "hello");
+
+        assertEquals(Map.entry("app.other.envs.FOO", "replaced"), values.getBySuffix("envs.FOO", "dev"));
+        assertEquals(Map.entry("app.envs.FOO", "foo"), values.getBySuffix("app.envs.FOO", "dev"));
+        assertEquals(Map.entry("app.other.envs.FOO", "replaced"), values.getBySuffix("", "dev"));
+        assertEquals(Map.entry("app.envs.GREETING", "hello"), values.getBySuffix("GREETING", null));
+        assertNull(values.getBySuffix("FOO", null));
+        assertNull(values.getBySuffix("GREETING", "dev"));
+    }
+
+    @Test
+    void shouldOnlyModifyValuesUsingTheHolder() {
+        ValuesHolder values = new ValuesHolder();
+        values.put("app.envs.FOO", "foo", "dev");
+
+        assertThrows(UnsupportedOperationException.class, () -> values.get("dev").put("app.envs.GREETING", "hello"));
+        assertThrows(UnsupportedOperationException.class, () -> values.get("dev").remove("app.envs.FOO"));
+        assertThrows(UnsupportedOperationException.class,
+                () -> values.getValuesByProfile().get("dev").remove("app.envs.FOO"));
+        assertThrows(UnsupportedOperationException.class, () -> values.get(null).put("app.envs.GREETING", "hello"));
+    }
+
+    private static String randomProperty(Random random) {
+        StringBuilder property = new StringBuilder();
+        int segments = random.nextInt(4);
+        for (int index = 0; index < segments; index++) {
+            if (index > 0) {
+                property.append('.');
+            }
+
+            property.append(SEGMENTS.get(random.nextInt(SEGMENTS.size())));
+        }
+
+        return property.toString();
+    }
+
+    /**
+     * The lookup of the values by suffix that was used before the suffix index, where the values are now iterated in
+     * insertion order.
+     */
+    private static Map.Entry<String, Object> findBySuffix(ValuesHolder values, String environmentProperty, String profile) {
+        Map<String, Object> current = values.get(profile);
+        for (Map.Entry<String, Object> currentValue : current.entrySet()) {
+            if (currentValue.getKey().endsWith(environmentProperty)) {
+                return currentValue;
+            }
+        }
+
+        return null;
+    }
+}
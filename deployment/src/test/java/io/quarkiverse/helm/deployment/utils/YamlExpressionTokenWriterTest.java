@@ -0,0 +1,149 @@
+package io.quarkiverse.helm.deployment.utils;
+
+import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.END_EXPRESSION_TOKEN;
+import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.SEPARATOR_QUOTES;
+import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.SEPARATOR_TOKEN;
+import static io.quarkiverse.helm.deployment.utils.YamlExpressionParserUtils.START_EXPRESSION_TOKEN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class YamlExpressionTokenWriterTest {
+
+    private static final String NL = System.lineSeparator();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // pass-through
+            "",
+            "apiVersion: v1\nkind: Service\nmetadata:\n  name: app\n",
+            "value: \"quoted\" and {single} braces, a:colon and a \\ backslash",
+            // expressions
+            "replicas: \"{{ .Values.app.replicas }}\"\n",
+            "value: \":START:{{ .Values.app.greeting }}:END:\"\n",
+            "description: \"{{- if .Values.app.description }}:LINE_SEPARATOR:{{ .Values.app.description | quote }}\"",
+            "image: \":DOUBLE_QUOTES{{ .Values.app.image }}:DOUBLE_QUOTES\"",
+            // nested and adjacent tokens
+            "value: \"{{ \"{{ .Values.app.nested }}\" }}\"",
+            "value: \"{{ .Values.a }}\"\"{{ .Values.b }}\"",
+            "value: \":START::START:{{ a }}:END::END:\"",
+            "value: \"\":START:\"\"{{\"\"}}\"\":END:\"\"",
+            "value: :LINE_SEPARATOR::LINE_SEPARATOR::DOUBLE_QUOTES:DOUBLE_QUOTES",
+            "value: \"\"{{}}\"\"",
+            // partial tokens
+            "value: \"{ and }\" and :STAR and :EN and :LINE_SEPARATOR and :DOUBLE_QUOTE",
+            "value: \"{",
+            "value: }}",
+            "value: :START",
+            "value: ends with a backslash \\",
+            // Jackson escape sequences
+            "note: \"a long note \\\n    \\split by Jackson\"",
+            "note: \"a long note \\\n\\split with no indentation\"",
+            "note: \"a long note \\\n  \t \n  \\split with several blank lines\"",
+            "note: \"\\\\\n  \\two backslashes\"",
+            "note: \"\\\n  \\\\\n  \\two escapes in a row\"",
+            "note: \"not an escape \\\n  without the second backslash\"",
+            "note: \"not an escape \\ \n  \\with a blank before the new line\"",
+            "note: \"{{ .Values.app.note | default \\\"a long \\\n    \\default\\\" }}\"",
+    })
+    void shouldRewriteLikeTheReplaceAllChain(String content) throws IOException {
+        String expected = replaceAll(content);
+
+        assertEquals(expected, YamlExpressionTokenWriter.rewrite(content));
+        assertEquals(expected, writeCharByChar(content));
+        for (int split = 0; split <= content.length(); split++) {
+            assertEquals(expected, writeInTwoChunks(content, split), "split at " + split);
+        }
+    }
+
+    @Test
+    void shouldRewriteRandomContentLikeTheReplaceAllChain() throws IOException {
+        // content made of fragments of all the tokens, so the partial matches overlap in every possible way
+        String[] fragments = { "\"", "{", "}", "{{", "}}", ":", ":START:", ":END:", ":LINE_SEPARATOR:", ":DOUBLE_QUOTES",
+                ":ST", "ART:", ":E", "ND:", "\\", "\n", " ", "\t", "a", "b" };
+        Random random = new Random(42);
+        for (int iteration = 0; iteration < 5_000; iteration++) {
+            StringBuilder content = new StringBuilder();
+            int size = random.nextInt(30);
+            for (int index = 0; index < size; index++) {
+                content.append(fragments[random.nextInt(fragments.length)]);
+            }
+
+            String expected = replaceAll(content.toString());
+            assertEquals(expected, YamlExpressionTokenWriter.rewrite(content.toString()), content.toString());
+            assertEquals(expected, writeInRandomChunks(content.toString(), random), content.toString());
+        }
+    }
+
+    @Test
+    void shouldFlushWithoutLosingPartialMatches() throws IOException {
+        StringWriter result = new StringWriter();
+        try (Writer writer = new YamlExpressionTokenWriter(result)) {
+            writer.write("value: \"{");
+            writer.flush();
+            writer.write("{ .Values.app.value }");
+            writer.flush();
+            writer.write("}\"\n");
+        }
+
+        assertEquals("value: {{ .Values.app.value }}\n", result.toString());
+    }
+
+    /**
+     * The chain of replacements that the templates used to be adapted with.
+     */
+    private static String replaceAll(String content) {
+        return content
+                .replaceAll(Pattern.quote("\"{{"), "{{")
+                .replaceAll(Pattern.quote("}}\""), "}}")
+                .replaceAll("\"" + START_EXPRESSION_TOKEN, "")
+                .replaceAll(END_EXPRESSION_TOKEN + "\"", "")
+                .replaceAll(SEPARATOR_QUOTES, "\"")
+                .replaceAll(SEPARATOR_TOKEN, NL)
+                .replaceAll("\\\\\\n(\\s)*\\\\", "");
+    }
+
+    private static String writeCharByChar(String content) throws IOException {
+        StringWriter result = new StringWriter();
+        try (Writer writer = new YamlExpressionTokenWriter(result)) {
+            for (int index = 0; index < content.length(); index++) {
+                writer.write(content.charAt(index));
+            }
+        }
+
+        return result.toString();
+    }
+
+    private static String writeInTwoChunks(String content, int split) throws IOException {
+        StringWriter result = new StringWriter();
+        try (Writer writer = new YamlExpressionTokenWriter(result)) {
+            writer.write(content, 0, split);
+            writer.write(content.toCharArray(), split, content.length() - split);
+        }
+
+        return result.toString();
+    }
+
+    private static String writeInRandomChunks(String content, Random random) throws IOException {
+        StringWriter result = new StringWriter();
+        try (Writer writer = new YamlExpressionTokenWriter(result)) {
+            int index = 0;
+            while (index < content.length()) {
+                int length = Math.min(content.length() - index, 1 + random.nextInt(4));
+                writer.write(content, index, length);
+                writer.flush();
+                index += length;
+            }
+        }
+
+        return result.toString();
+    }
+}
@@ -0,0 +1,13 @@
+package io.quarkiverse.helm.tests.parallel;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+
+@Path("")
+public class Endpoint {
+
+    @GET
+    public String hello() {
+        return "Hello, World!";
+    }
+}
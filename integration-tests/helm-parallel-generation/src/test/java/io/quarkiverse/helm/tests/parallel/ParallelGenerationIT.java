@@ -0,0 +1,118 @@
+package io.quarkiverse.helm.tests.parallel;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import io.dekorate.ConfigReference;
+import io.dekorate.Session;
+import io.dekorate.helm.config.HelmChartConfig;
+import io.dekorate.helm.config.HelmChartConfigBuilder;
+import io.dekorate.project.Project;
+import io.quarkiverse.helm.deployment.QuarkusHelmWriterSessionListener;
+
+public class ParallelGenerationIT {
+
+    private static final String CHART_NAME = "quarkus-helm-integration-tests-parallel-generation";
+    private static final List<String> DEPLOYMENT_TARGETS = List.of("knative", "kubernetes", "openshift");
+    private static final Path MANIFESTS = Paths.get("target", "kubernetes");
+    private static final Path INPUT = Paths.get("src", "main", "helm");
+
+    @Test
+    public void shouldGenerateTheChartsOfAllTheDeploymentTargets() throws IOException {
+        for (String deploymentTarget : DEPLOYMENT_TARGETS) {
+            Path chart = Paths.get("target", "helm", deploymentTarget, CHART_NAME);
+            assertTrue(Files.exists(chart.resolve("Chart.yaml")), deploymentTarget);
+            assertTrue(Files.exists(chart.resolve("values.yaml")), deploymentTarget);
+        }
+    }
+
+    /**
+     * The manifests generated by Quarkus are not the same in every build (for example, the order of the labels), so the
+     * charts are generated again from the manifests of this build, once target by target and once concurrently with the same
+     * writer, like the extension does when `quarkus.helm.parallel-generation` is enabled.
+     */
+    @Test
+    public void shouldGenerateTheSameChartsInParallelAsSequentially() throws Exception {
+        Path sequential = Paths.get("target", "regenerated-sequential");
+        QuarkusHelmWriterSessionListener sequentialWriter = new QuarkusHelmWriterSessionListener();
+        for (String deploymentTarget : DEPLOYMENT_TARGETS) {
+            writeChart(sequentialWriter, deploymentTarget, sequential);
+        }
+
+        Path parallel = Paths.get("target", "regenerated-parallel");
+        QuarkusHelmWriterSessionListener parallelWriter = new QuarkusHelmWriterSessionListener();
+        CyclicBarrier start = new CyclicBarrier(DEPLOYMENT_TARGETS.size());
+        ExecutorService executor = Executors.newFixedThreadPool(DEPLOYMENT_TARGETS.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (String deploymentTarget : DEPLOYMENT_TARGETS) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return writeChart(parallelWriter, deploymentTarget, parallel);
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<String> files = listFiles(sequential);
+        assertEquals(files, listFiles(parallel));
+        for (String file : files) {
+            assertArrayEquals(Files.readAllBytes(sequential.resolve(file)), Files.readAllBytes(parallel.resolve(file)), file);
+        }
+    }
+
+    private static Object writeChart(QuarkusHelmWriterSessionListener writer, String deploymentTarget, Path output) {
+        return writer.writeHelmFiles(Session.getSession(), new Project(), helmConfig(), valueReferences(), INPUT,
+                output.resolve(deploymentTarget),
+                List.of(MANIFESTS.resolve(deploymentTarget + ".yml").toFile()));
+    }
+
+    private static HelmChartConfig helmConfig() {
+        return new HelmChartConfigBuilder()
+                .withEnabled(true)
+                .withName(CHART_NAME)
+                .withVersion("1.0.0")
+                .withApiVersion("v2")
+                .withValuesRootAlias("app")
+                .withNotes(null)
+                .build();
+    }
+
+    private static List<ConfigReference> valueReferences() {
+        return Arrays.asList(
+                new ConfigReference("image", new String[] { "spec.template.spec.containers.image" }),
+                new ConfigReference("replicas", new String[] { "spec.replicas" }),
+                new ConfigReference("foo", new String[0], "Only for DEV!", null, "dev"));
+    }
+
+    private static List<String> listFiles(Path folder) throws IOException {
+        try (Stream<Path> files = Files.walk(folder)) {
+            return files.filter(Files::isRegularFile)
+                    .map(file -> folder.relativize(file).toString())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}